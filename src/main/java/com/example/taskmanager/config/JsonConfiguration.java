@@ -0,0 +1,59 @@
+package com.example.taskmanager.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Optional Jackson speed-ups, each switched on by adding its artifact to the classpath.
+ * jackson-module-blackbird replaces reflective getter and setter calls with
+ * generated lambdas (the successor of afterburner for Java 11+).
+ * jackson-dataformat-smile and jackson-dataformat-cbor add binary responses for
+ * internal clients, negotiated with Accept: application/x-jackson-smile or
+ * application/cbor; their mappers get the same configuration as the JSON one.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JsonConfiguration {
+    
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    
+    /**
+     * Registered with the application's ObjectMapper like every Module bean.
+     */
+    @Bean
+    @ConditionalOnClass(name = BLACKBIRD_MODULE)
+    public Module blackbirdModule() {
+        try {
+            return (Module) ClassUtils.forName(BLACKBIRD_MODULE, JsonConfiguration.class.getClassLoader())
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Failed to create " + BLACKBIRD_MODULE, e);
+        }
+    }
+    
+    @Bean
+    @ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.smile.SmileFactory")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.smile().build();
+        builder.configure(mapper);
+        return new MappingJackson2SmileHttpMessageConverter(mapper);
+    }
+    
+    @Bean
+    @ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.cbor().build();
+        builder.configure(mapper);
+        return new MappingJackson2CborHttpMessageConverter(mapper);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.service.CommandValidatorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoint for the command allowlist, served under both profiles.
+ * GET /actuator/allowlist - Current allowlist and its version
+ * POST /actuator/allowlist {"commands": "echo,ls"} - Replace the allowlist without a restart
+ * Not exposed over HTTP unless added to management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "allowlist")
+public class AllowlistEndpoint {
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @ReadOperation
+    public Map<String, Object> allowlist() {
+        Map<String, Object> allowlist = new LinkedHashMap<>();
+        allowlist.put("version", commandValidator.getAllowlistVersion());
+        allowlist.put("commands", commandValidator.getAllowedCommands());
+        return allowlist;
+    }
+    
+    /**
+     * Replaces the allowlist; commands already stored are re-checked on their next run.
+     * @param commands Comma-separated base commands (a JSON array is accepted too)
+     */
+    @WriteOperation
+    public Map<String, Object> replace(String commands) {
+        List<String> allowed = Arrays.stream(commands.split(","))
+            .map(String::trim)
+            .filter(command -> !command.isEmpty())
+            .toList();
+        if (allowed.isEmpty()) {
+            throw new InvalidEndpointRequestException("At least one command is required", "Empty allowlist");
+        }
+        commandValidator.setAllowedCommands(allowed);
+        return allowlist();
+    }
+}
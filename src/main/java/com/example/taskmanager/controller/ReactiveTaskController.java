@@ -0,0 +1,135 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.service.ReactiveTaskService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux REST Controller for Task Management API (reactive profile).
+ * Serves the core task endpoints of TaskController without blocking
+ * request threads, plus live output streaming of a synchronous execution.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/tasks")
+@CrossOrigin(origins = "*")
+public class ReactiveTaskController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTaskController.class);
+    
+    @Autowired
+    private ReactiveTaskService taskService;
+    
+    /**
+     * GET /tasks - Get all tasks (metadata only)
+     * GET /tasks?id={id} - Get task by ID with its recent executions
+     */
+    @GetMapping
+    public Mono<Object> getTasks(@RequestParam(required = false) String id) {
+        logger.info("GET /tasks - id: {}", id);
+        
+        if (id != null && !id.isEmpty()) {
+            // Single task object, as in TaskController
+            return taskService.getTaskById(id).cast(Object.class);
+        }
+        return taskService.getAllTasks().collectList().cast(Object.class);
+    }
+    
+    /**
+     * PUT /tasks - Create a new task
+     */
+    @PutMapping
+    public Mono<ResponseEntity<Task>> createTask(@Valid @RequestBody Task task) {
+        logger.info("PUT /tasks - Creating task: {}", task.getName());
+        return taskService.createTask(task)
+            .map(createdTask -> ResponseEntity.status(HttpStatus.CREATED).body(createdTask));
+    }
+    
+    /**
+     * POST /tasks - Create a new task where the server generates the ID
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Task>> createTaskWithServerId(@Valid @RequestBody Task task) {
+        logger.info("POST /tasks - Creating task with server-generated ID: {}", task.getName());
+        task.setId(null);
+        return taskService.createTask(task)
+            .map(createdTask -> ResponseEntity.status(HttpStatus.CREATED).body(createdTask));
+    }
+    
+    /**
+     * DELETE /tasks/{id} - Delete a task
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable String id) {
+        logger.info("DELETE /tasks/{}", id);
+        return taskService.deleteTask(id)
+            .thenReturn(ResponseEntity.noContent().<Void>build());
+    }
+    
+    /**
+     * GET /tasks/search?name={name} - Find tasks by name
+     * Optional: mode=contains|prefix, page={page}, size={size}
+     */
+    @GetMapping("/search")
+    public Flux<Task> findTasksByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "contains") String mode,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        logger.info("GET /tasks/search - name: {}, mode: {}, page: {}, size: {}", name, mode, page, size);
+        
+        if (!"contains".equals(mode) && !"prefix".equals(mode)) {
+            return Flux.error(new IllegalArgumentException("mode must be 'contains' or 'prefix'"));
+        }
+        return taskService.findTasksByName(name, "prefix".equals(mode), page, size);
+    }
+    
+    /**
+     * PUT /tasks/{id}/execute?timeoutSeconds={seconds} - Execute a task
+     */
+    @PutMapping("/{id}/execute")
+    public Mono<Task> executeTask(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer timeoutSeconds) {
+        logger.info("PUT /tasks/{}/execute - timeout: {}", id, timeoutSeconds);
+        return taskService.executeTask(id, timeoutSeconds);
+    }
+    
+    /**
+     * PUT /tasks/{id}/execute/stream?timeoutSeconds={seconds} - Execute a task and stream its raw output
+     */
+    @PutMapping(value = "/{id}/execute/stream", produces = MediaType.TEXT_PLAIN_VALUE)
+    public Flux<DataBuffer> executeTaskStreaming(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer timeoutSeconds) {
+        logger.info("PUT /tasks/{}/execute/stream - timeout: {}", id, timeoutSeconds);
+        return taskService.executeTaskStreaming(id, timeoutSeconds);
+    }
+    
+    /**
+     * GET /tasks/{id}/executions?page={page}&size={size}&includeOutput={true|false} - Get execution history
+     * Outputs stored compressed or in GridFS are only loaded with includeOutput=true
+     * (or from GET /tasks/{id}/executions/{executionId}); outputBytes gives their size.
+     */
+    @GetMapping("/{id}/executions")
+    public Flux<TaskExecution> getTaskExecutions(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeOutput) {
+        logger.info("GET /tasks/{}/executions - page: {}, size: {}, includeOutput: {}", id, page, size, includeOutput);
+        return taskService.getTaskExecutions(id, page, size, includeOutput);
+    }
+}
@@ -1,21 +1,47 @@
 package com.example.taskmanager.controller;
 
+import com.example.taskmanager.model.BatchExecutionRequest;
+import com.example.taskmanager.model.BatchExecutionResult;
+import com.example.taskmanager.model.ExecutionStats;
 import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.model.TaskImportResult;
+import com.example.taskmanager.model.TaskPage;
+import com.example.taskmanager.service.AsyncExecutionService;
+import com.example.taskmanager.service.BatchExecutionService;
+import com.example.taskmanager.service.ExecutionOutputStreams;
+import com.example.taskmanager.service.ExecutionStatsService;
+import com.example.taskmanager.service.TaskImportService;
 import com.example.taskmanager.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for Task Management API.
  * Provides endpoints for task CRUD operations and command execution.
+ * Replaced by ReactiveTaskController under the "reactive" profile.
  */
+@Profile("!reactive")
 @RestController
 @RequestMapping("/tasks")
 @CrossOrigin(origins = "*")
@@ -26,18 +52,46 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
     
+    @Autowired
+    private AsyncExecutionService asyncExecutionService;
+    
+    @Autowired
+    private ExecutionOutputStreams outputStreams;
+    
+    @Autowired
+    private BatchExecutionService batchExecutionService;
+    
+    @Autowired
+    private ExecutionStatsService statsService;
+    
+    @Autowired
+    private TaskImportService taskImportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
-     * GET /tasks - Get all tasks
-     * GET /tasks?id={id} - Get task by ID
+     * GET /tasks - Get all tasks (metadata only)
+     * GET /tasks?id={id} - Get task by ID with its recent executions
+     * GET /tasks?limit={n}&after={cursor}&fields={f1,f2} - Get a page of tasks (keyset on _id)
      */
     @GetMapping
-    public ResponseEntity<Object> getTasks(@RequestParam(required = false) String id) {
-        logger.info("GET /tasks - id: {}", id);
+    public ResponseEntity<Object> getTasks(
+            @RequestParam(required = false) String id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) List<String> fields) {
+        logger.info("GET /tasks - id: {}, limit: {}, after: {}, fields: {}", id, limit, after, fields);
         
         if (id != null && !id.isEmpty()) {
             // Get single task by ID
             Task task = taskService.getTaskById(id);
             return ResponseEntity.ok(task);
+        } else if (limit != null || after != null || fields != null) {
+            // Get one page of tasks
+            TaskPage page = taskService.getTaskPage(after, limit != null ? limit : 100,
+                fields != null ? fields : Collections.emptyList());
+            return ResponseEntity.ok(page);
         } else {
             // Get all tasks
             List<Task> tasks = taskService.getAllTasks();
@@ -45,6 +99,52 @@ public class TaskController {
         }
     }
     
+    /**
+     * GET /tasks with Accept: application/x-ndjson - Stream all tasks, one JSON document per line
+     * Documents are written from the database cursor as they arrive.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasks(
+            @RequestParam(required = false) List<String> fields) {
+        logger.info("GET /tasks (ndjson) - fields: {}", fields);
+        
+        // Opened here so an invalid projection fails before the response is committed
+        Stream<Task> tasks = taskService.streamAllTasks(fields != null ? fields : Collections.emptyList());
+        
+        StreamingResponseBody body = (OutputStream out) -> {
+            try (tasks) {
+                tasks.forEach(task -> writeNdjsonLine(out, task));
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+    
+    /**
+     * GET /tasks/export - Stream all tasks as NDJSON, in the format POST /tasks/import reads
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks() {
+        logger.info("GET /tasks/export");
+        return streamTasks(null);
+    }
+    
+    /**
+     * POST /tasks/import?ordered={true|false} - Create tasks from an NDJSON body, one task per line
+     * The body is read and written in chunks as it arrives; returns the counts
+     * and the line number and reason of every line that was not imported.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<TaskImportResult> importTasks(
+            @RequestParam(defaultValue = "false") boolean ordered,
+            InputStream body) {
+        logger.info("POST /tasks/import - ordered: {}", ordered);
+        
+        TaskImportResult result = taskImportService.importTasks(body, ordered);
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * PUT /tasks - Create a new task
      */
@@ -70,12 +170,21 @@ public class TaskController {
     
     /**
      * GET /tasks/search?name={name} - Find tasks by name
+     * Optional: mode=contains|prefix, page={page}, size={size}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Task>> findTasksByName(@RequestParam String name) {
-        logger.info("GET /tasks/search - name: {}", name);
+    public ResponseEntity<List<Task>> findTasksByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "contains") String mode,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        logger.info("GET /tasks/search - name: {}, mode: {}, page: {}, size: {}", name, mode, page, size);
         
-        List<Task> tasks = taskService.findTasksByName(name);
+        if (!"contains".equals(mode) && !"prefix".equals(mode)) {
+            throw new IllegalArgumentException("mode must be 'contains' or 'prefix'");
+        }
+        
+        List<Task> tasks = taskService.findTasksByName(name, "prefix".equals(mode), page, size);
         return ResponseEntity.ok(tasks);
     }
     
@@ -94,13 +203,133 @@ public class TaskController {
     return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
 }
     /**
-     * PUT /tasks/{id}/execute - Execute a task
+     * PUT /tasks/{id}/execute?timeoutSeconds={seconds} - Execute a task
+     * The timeout defaults to the task's own, then to the configured default.
      */
     @PutMapping("/{id}/execute")
-    public ResponseEntity<Task> executeTask(@PathVariable String id) {
-        logger.info("PUT /tasks/{}/execute", id);
+    public ResponseEntity<Task> executeTask(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer timeoutSeconds) {
+        logger.info("PUT /tasks/{}/execute - timeout: {}", id, timeoutSeconds);
         
-        Task updatedTask = taskService.executeTask(id);
+        Task updatedTask = taskService.executeTask(id, timeoutSeconds);
         return ResponseEntity.ok(updatedTask);
     }
+    
+    /**
+     * GET /tasks/{id}/executions?page={page}&size={size}&includeOutput={true|false} - Get execution history
+     * Outputs stored compressed or in GridFS are only loaded with includeOutput=true
+     * (or from GET /tasks/{id}/executions/{executionId}); outputBytes gives their size.
+     */
+    @GetMapping("/{id}/executions")
+    public ResponseEntity<List<TaskExecution>> getTaskExecutions(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeOutput) {
+        logger.info("GET /tasks/{}/executions - page: {}, size: {}, includeOutput: {}", id, page, size, includeOutput);
+        
+        List<TaskExecution> executions = taskService.getTaskExecutions(id, page, size, includeOutput);
+        return ResponseEntity.ok(executions);
+    }
+    
+    /**
+     * GET /tasks/{id}/stats - Execution statistics of a task
+     * (run count, failure rate, duration percentiles, exit codes, output sizes)
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ExecutionStats> getTaskStats(@PathVariable String id) {
+        logger.info("GET /tasks/{}/stats", id);
+        return ResponseEntity.ok(statsService.getTaskStats(id));
+    }
+    
+    /**
+     * GET /tasks/stats?owner={owner} - Execution statistics of each of an owner's tasks
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<ExecutionStats>> getOwnerStats(@RequestParam String owner) {
+        logger.info("GET /tasks/stats - owner: {}", owner);
+        return ResponseEntity.ok(statsService.getOwnerStats(owner));
+    }
+    
+    /**
+     * POST /tasks/execute - Execute many tasks in parallel
+     * Body: {"ids": [...]} or {"name": "..."}; returns one result per task.
+     */
+    @PostMapping("/execute")
+    public ResponseEntity<List<BatchExecutionResult>> executeBatch(@RequestBody BatchExecutionRequest request) {
+        logger.info("POST /tasks/execute - ids: {}, name: {}",
+            request.getIds() != null ? request.getIds().size() : null, request.getName());
+        
+        List<BatchExecutionResult> results = batchExecutionService.executeBatch(request);
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * POST /tasks/{id}/executions?timeoutSeconds={seconds} - Submit a task for asynchronous execution
+     * Returns 202 with the queued execution; 429 when the worker pool is saturated.
+     */
+    @PostMapping("/{id}/executions")
+    public ResponseEntity<TaskExecution> submitExecution(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer timeoutSeconds) {
+        logger.info("POST /tasks/{}/executions - timeout: {}", id, timeoutSeconds);
+        
+        TaskExecution execution = asyncExecutionService.submitExecution(id, timeoutSeconds);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+            .path("/{executionId}")
+            .buildAndExpand(execution.getId())
+            .toUri();
+        return ResponseEntity.accepted().location(location).body(execution);
+    }
+    
+    /**
+     * GET /tasks/{id}/executions/{executionId} - Poll the status of an execution
+     */
+    @GetMapping("/{id}/executions/{executionId}")
+    public ResponseEntity<TaskExecution> getTaskExecution(
+            @PathVariable String id,
+            @PathVariable String executionId) {
+        logger.info("GET /tasks/{}/executions/{}", id, executionId);
+        
+        TaskExecution execution = taskService.getTaskExecution(id, executionId);
+        return ResponseEntity.ok(execution);
+    }
+    
+    /**
+     * DELETE /tasks/{id}/executions/{executionId} - Cancel a queued or running execution
+     * Returns 202 with the execution; it turns CANCELLED once its process tree
+     * has been killed. 409 if it has already finished.
+     */
+    @DeleteMapping("/{id}/executions/{executionId}")
+    public ResponseEntity<TaskExecution> cancelExecution(
+            @PathVariable String id,
+            @PathVariable String executionId) {
+        logger.info("DELETE /tasks/{}/executions/{}", id, executionId);
+        
+        TaskExecution execution = asyncExecutionService.cancelExecution(id, executionId);
+        return ResponseEntity.accepted().body(execution);
+    }
+    
+    /**
+     * GET /tasks/{id}/executions/{executionId}/stream - Stream execution output (SSE)
+     * Emits "output" events while the command runs and a final "status" event.
+     */
+    @GetMapping(value = "/{id}/executions/{executionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamExecutionOutput(
+            @PathVariable String id,
+            @PathVariable String executionId) {
+        logger.info("GET /tasks/{}/executions/{}/stream", id, executionId);
+        
+        return outputStreams.stream(executionId, () -> taskService.getTaskExecution(id, executionId));
+    }
+    
+    private void writeNdjsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.taskmanager.exception;
+
+/**
+ * Exception thrown when a running command is stopped before it finished,
+ * either on request or because the application is shutting down.
+ */
+public class ExecutionCancelledException extends CommandExecutionException {
+    
+    private final boolean shutdown;
+    
+    public ExecutionCancelledException(String message, boolean shutdown) {
+        super(message, null);
+        this.shutdown = shutdown;
+    }
+    
+    public boolean isShutdown() {
+        return shutdown;
+    }
+}
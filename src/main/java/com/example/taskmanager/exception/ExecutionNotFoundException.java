@@ -0,0 +1,11 @@
+package com.example.taskmanager.exception;
+
+/**
+ * Exception thrown when a task execution is not found in the database.
+ */
+public class ExecutionNotFoundException extends RuntimeException {
+    
+    public ExecutionNotFoundException(String taskId, String executionId) {
+        super("Execution " + executionId + " not found for task: " + taskId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.taskmanager.exception;
+
+/**
+ * Exception thrown when cancelling an execution that has already finished.
+ */
+public class ExecutionNotRunningException extends RuntimeException {
+    
+    public ExecutionNotRunningException(String executionId, String status) {
+        super("Execution " + executionId + " is already " + status);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanager.exception;
+
+/**
+ * Exception thrown when an execution cannot be accepted because the
+ * worker pool or the owner's concurrency limit is exhausted.
+ */
+public class ExecutionRejectedException extends RuntimeException {
+    
+    public ExecutionRejectedException(String message) {
+        super(message);
+    }
+}
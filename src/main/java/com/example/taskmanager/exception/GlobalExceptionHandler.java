@@ -4,10 +4,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -39,6 +41,40 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
+    /**
+     * Handle ExecutionNotFoundException (404).
+     */
+    @ExceptionHandler(ExecutionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleExecutionNotFoundException(ExecutionNotFoundException ex) {
+        logger.error("Execution not found: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.NOT_FOUND.value(),
+            "Execution Not Found",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+    
+    /**
+     * Handle ExecutionNotRunningException (409).
+     */
+    @ExceptionHandler(ExecutionNotRunningException.class)
+    public ResponseEntity<ErrorResponse> handleExecutionNotRunningException(ExecutionNotRunningException ex) {
+        logger.warn("Execution not running: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Execution Not Running",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+    
     /**
      * Handle InvalidCommandException (400).
      */
@@ -56,6 +92,40 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    /**
+     * Handle ExecutionRejectedException (429).
+     */
+    @ExceptionHandler(ExecutionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleExecutionRejectedException(ExecutionRejectedException ex) {
+        logger.warn("Execution rejected: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Requests",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+    
+    /**
+     * Handle invalid request parameters (400).
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        logger.error("Bad request: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+    
     /**
      * Handle CommandExecutionException (500).
      */
@@ -80,11 +150,24 @@ public class GlobalExceptionHandler {
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
         logger.error("Validation error: {}", ex.getMessage());
-        
+        return validationErrorResponse(ex.getBindingResult());
+    }
+    
+    /**
+     * Handle validation errors of the reactive stack (400).
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleReactiveValidationExceptions(
+            WebExchangeBindException ex) {
+        logger.error("Validation error: {}", ex.getMessage());
+        return validationErrorResponse(ex.getBindingResult());
+    }
+    
+    private ResponseEntity<Map<String, Object>> validationErrorResponse(BindingResult bindingResult) {
         Map<String, Object> response = new HashMap<>();
         Map<String, String> errors = new HashMap<>();
         
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
+        bindingResult.getAllErrors().forEach((error) -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
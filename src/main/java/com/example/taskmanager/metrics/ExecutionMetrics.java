@@ -0,0 +1,128 @@
+package com.example.taskmanager.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters for the task execution path.
+ * All meters are tagged with the base command name (never the full command
+ * line), so tag cardinality is bounded by the command whitelist.
+ */
+@Component
+public class ExecutionMetrics {
+    
+    public static final String STAGE_LOAD = "load";
+    public static final String STAGE_SPAWN = "spawn";
+    public static final String STAGE_DRAIN = "drain";
+    public static final String STAGE_WAIT = "wait";
+    public static final String STAGE_SAVE = "save";
+    
+    private static final String UNKNOWN_COMMAND = "other";
+    private static final int MAX_COMMAND_NAME_LENGTH = 32;
+    
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> outputSizes = new ConcurrentHashMap<>();
+    
+    public ExecutionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        registry.gauge("taskmanager.executions.in.flight", inFlight);
+    }
+    
+    /**
+     * Starts timing a stage; finish it with {@link #recordStage}.
+     */
+    public Timer.Sample startStage() {
+        return Timer.start(registry);
+    }
+    
+    /**
+     * Records the duration of one stage of an execution.
+     */
+    public void recordStage(Timer.Sample sample, String stage, String command) {
+        String commandName = commandName(command);
+        Timer timer = stageTimers.computeIfAbsent(stage + '|' + commandName, key ->
+            Timer.builder("taskmanager.execution.stage")
+                .description("Duration of each stage of a task execution")
+                .tag("stage", stage)
+                .tag("command", commandName)
+                .publishPercentileHistogram()
+                .register(registry));
+        sample.stop(timer);
+    }
+    
+    public void executionStarted() {
+        inFlight.incrementAndGet();
+    }
+    
+    public void executionFinished() {
+        inFlight.decrementAndGet();
+    }
+    
+    public void recordTimeout(String command) {
+        counter("taskmanager.executions.timeouts", "command", commandName(command)).increment();
+    }
+    
+    public void recordExitCode(String command, int exitCode) {
+        if (exitCode != 0) {
+            counter("taskmanager.executions.nonzero.exits", "command", commandName(command)).increment();
+        }
+    }
+    
+    public void recordOutputBytes(String command, long bytes) {
+        String commandName = commandName(command);
+        outputSizes.computeIfAbsent(commandName, key ->
+            DistributionSummary.builder("taskmanager.execution.output.bytes")
+                .description("Bytes of output produced per execution")
+                .baseUnit("bytes")
+                .tag("command", commandName)
+                .register(registry))
+            .record(bytes);
+    }
+    
+    /**
+     * Counts a rejected command by the validation rule it broke.
+     */
+    public void recordValidatorRejection(String rule) {
+        counter("taskmanager.validator.rejections", "rule", rule).increment();
+    }
+    
+    private Counter counter(String name, String tagKey, String tagValue) {
+        return counters.computeIfAbsent(name + '|' + tagValue, key ->
+            Counter.builder(name).tag(tagKey, tagValue).register(registry));
+    }
+    
+    /**
+     * Reduces a command line to its base command name for tagging.
+     */
+    public static String commandName(String command) {
+        if (command == null) {
+            return UNKNOWN_COMMAND;
+        }
+        String trimmed = command.trim();
+        int end = 0;
+        while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end))) {
+            end++;
+        }
+        if (end == 0 || end > MAX_COMMAND_NAME_LENGTH) {
+            return UNKNOWN_COMMAND;
+        }
+        String name = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) < 'a' || name.charAt(i) > 'z') {
+                return UNKNOWN_COMMAND;
+            }
+        }
+        return name;
+    }
+}
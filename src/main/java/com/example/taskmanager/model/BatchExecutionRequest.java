@@ -0,0 +1,21 @@
+package com.example.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request body for executing many tasks at once.
+ * Either ids or name (a name search, as in /tasks/search) must be given.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchExecutionRequest {
+    
+    private List<String> ids;
+    
+    private String name;
+}
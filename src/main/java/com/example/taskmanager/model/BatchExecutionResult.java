@@ -0,0 +1,28 @@
+package com.example.taskmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-task outcome of a batch execution.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchExecutionResult {
+    
+    private String taskId;
+    
+    // Null when the task was not found
+    private String executionId;
+    
+    // COMPLETED, FAILED, NOT_FOUND or REJECTED
+    private String status;
+    
+    private Long durationMs;
+    
+    private String message;
+}
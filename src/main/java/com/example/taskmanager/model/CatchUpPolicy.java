@@ -0,0 +1,14 @@
+package com.example.taskmanager.model;
+
+/**
+ * What a schedule does with fire times it missed (node busy, previous run
+ * still going, or the application was down).
+ */
+public enum CatchUpPolicy {
+    // Drop missed fire times and wait for the next future one
+    SKIP,
+    // Run once for all missed fire times, then continue from now
+    FIRE_ONCE,
+    // Run once for every missed fire time, back to back
+    FIRE_ALL
+}
@@ -0,0 +1,60 @@
+package com.example.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Execution statistics of one task over its finished (completed or failed) runs.
+ * Computed from the execution history, or from the task's rollup document
+ * when rollups are enabled; rollup percentiles are histogram estimates
+ * (within 25% of the true value).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExecutionStats {
+    
+    public static final String SOURCE_HISTORY = "history";
+    public static final String SOURCE_ROLLUP = "rollup";
+    public static final String NO_EXIT_CODE = "none";
+    
+    private String taskId;
+    
+    // "history" or "rollup"
+    private String source;
+    
+    private long count;
+    
+    private long failed;
+    
+    private double failureRate;
+    
+    private Long avgDurationMs;
+    
+    private Long p50DurationMs;
+    
+    private Long p95DurationMs;
+    
+    private Long p99DurationMs;
+    
+    private Long maxDurationMs;
+    
+    // Completed runs per exit code; "none" counts runs recorded without one
+    private Map<String, Long> exitCodes;
+    
+    private Long avgOutputBytes;
+    
+    private Long maxOutputBytes;
+    
+    private Long totalOutputBytes;
+    
+    @UtcTimestamp
+    private Date firstRunAt;
+    
+    @UtcTimestamp
+    private Date lastRunAt;
+}
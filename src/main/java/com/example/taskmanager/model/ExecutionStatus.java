@@ -0,0 +1,12 @@
+package com.example.taskmanager.model;
+
+/**
+ * Lifecycle state of a TaskExecution.
+ */
+public enum ExecutionStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -1,22 +1,31 @@
 package com.example.taskmanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
  * Task represents a shell command that can be executed in a Kubernetes pod.
- * It contains task metadata and a history of all executions.
+ * It contains task metadata; execution history is stored separately in the
+ * task_executions collection and only attached to responses on demand.
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Document(collection = "tasks")
 public class Task {
     
@@ -26,11 +35,44 @@ public class Task {
     @NotBlank(message = "Task name is required")
     private String name;
     
+    // Lower-case name for indexed prefix search (maintained on save)
+    @JsonIgnore
+    @Indexed
+    private String nameLower;
+    
+    // 1- to 3-character n-grams of nameLower for indexed substring search
+    @JsonIgnore
+    @Indexed
+    private List<String> nameGrams;
+    
     @NotBlank(message = "Owner name is required")
+    @Indexed
     private String owner;
     
     @NotBlank(message = "Command is required")
     private String command;
     
+    // Command parsed once at create time; executions launch straight from it
+    @JsonIgnore
+    private List<String> argv;
+    
+    // Opt-in: serve the last execution for this many seconds instead of re-running
+    @PositiveOrZero(message = "Result cache age must not be negative")
+    private Integer resultCacheSeconds;
+    
+    // Overrides taskmanager.execution.timeout-seconds for this task's runs
+    @Positive(message = "Timeout must be positive")
+    private Integer timeoutSeconds;
+    
+    // Optional recurring schedule run by the in-process scheduler
+    private TaskSchedule schedule;
+    
+    // Maintained atomically by $inc / $max on each execution, never by rewriting the task
+    private Long executionCount;
+    
+    @UtcTimestamp
+    private Date lastExecutedAt;
+    
+    @Transient
     private List<TaskExecution> taskExecutions = new ArrayList<>();
 }
@@ -1,26 +1,120 @@
 package com.example.taskmanager.model;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
+import java.util.function.Supplier;
 
 /**
  * TaskExecution represents a single execution instance of a task.
  * It stores the start time, end time, and output of the command execution.
+ * Executions live in their own collection, keyed by task id and start time,
+ * so recording a run is a single insert instead of a rewrite of the task.
+ * Large outputs are stored compressed (see ExecutionOutputStorage) and only
+ * loaded when {@link #getOutput()} is first called; toString, equals and
+ * hashCode leave the output out so they never trigger that load.
+ * In work-queue mode the queue and lease fields record which worker runs
+ * the execution and until when it holds it (see ExecutionLeases).
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Document(collection = "task_executions")
+@CompoundIndex(name = "task_start_idx", def = "{'taskId': 1, 'startTime': -1}")
+@CompoundIndex(name = "queue_claim_idx", def = "{'status': 1, 'queuedAt': 1}")
 public class TaskExecution {
     
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS'Z'", timezone = "UTC")
+    @Id
+    private String id;
+    
+    private String taskId;
+    
+    @UtcTimestamp
     private Date startTime;
     
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS'Z'", timezone = "UTC")
+    @UtcTimestamp
     private Date endTime;
     
+    // Left out of toString/equals/hashCode: those would call getOutput() and load a stored output
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String output;
+    
+    private ExecutionStatus status;
+    
+    // Completed runs only; absent on executions recorded before exit codes were kept
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer exitCode;
+    
+    // UTF-8 size of the stored output, maintained on save and when retention cuts it to a summary
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long outputBytes;
+    
+    // Work-queue mode only: when the execution was queued for any worker to claim
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @UtcTimestamp
+    private Date queuedAt;
+    
+    // Timeout the run was submitted with (asynchronous and queued runs)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer timeoutSeconds;
+    
+    // Node running the execution: the worker that claimed it last in work-queue mode,
+    // the node whose pool took it otherwise (so a restart can fail what it left behind)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String workerId;
+    
+    // Work-queue mode only: set while a worker holds the execution, cleared when it records the result
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @UtcTimestamp
+    private Date leaseExpiresAt;
+    
+    // Work-queue mode only: number of times the execution was claimed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer attempts;
+    
+    // Work-queue mode only: cancellation requested from another node, picked up on the worker's heartbeat
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean cancelRequested;
+    
+    // Set once retention compaction has cut the output down to a summary
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean compacted;
+    
+    // Set on read when the output is stored compressed or in GridFS
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Supplier<String> outputLoader;
+    
+    // Set on read and on save when the output is spilled to GridFS, so storing it inline again deletes the file
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String outputFileId;
+    
+    public String getOutput() {
+        if (output == null && outputLoader != null) {
+            output = outputLoader.get();
+            outputLoader = null;
+        }
+        return output;
+    }
+    
+    public void setOutput(String output) {
+        this.output = output;
+        this.outputLoader = null;
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.taskmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A line of a bulk task import that was not imported.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskImportError {
+    
+    // 1-based line number in the request body
+    private long line;
+    
+    // Null when the line could not be parsed
+    private String id;
+    
+    private String message;
+}
@@ -0,0 +1,30 @@
+package com.example.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk task import.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskImportResult {
+    
+    // Non-blank lines read from the body
+    private long lines;
+    
+    private long imported;
+    
+    private long failed;
+    
+    // Lines not attempted because an ordered import stopped
+    private long skipped;
+    
+    // One entry per failed line, in line order
+    private List<TaskImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.example.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of tasks from keyset pagination.
+ * Pass nextCursor as the "after" parameter to fetch the following page;
+ * it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskPage {
+    
+    private List<Task> tasks;
+    
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.example.taskmanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Recurring schedule of a task, embedded in the task document.
+ * Exactly one of cron (Spring 6-field cron, UTC) or fixedRateSeconds is set.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskSchedule {
+    
+    private String cron;
+    
+    private Long fixedRateSeconds;
+    
+    // Random delay of up to this many seconds added to each fire time
+    private Long jitterSeconds;
+    
+    private CatchUpPolicy catchUp = CatchUpPolicy.FIRE_ONCE;
+}
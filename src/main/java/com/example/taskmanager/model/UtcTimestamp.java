@@ -0,0 +1,24 @@
+package com.example.taskmanager.model;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Date field written as a "yyyy-MM-dd HH:mm:ss.SSS'Z'" UTC timestamp,
+ * or as epoch milliseconds when the mapper writes dates as timestamps.
+ * Replaces @JsonFormat(pattern = ..., timezone = "UTC") with the faster
+ * {@link UtcTimestamps} serializers; the text format is unchanged.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = UtcTimestamps.Serializer.class)
+@JsonDeserialize(using = UtcTimestamps.Deserializer.class)
+public @interface UtcTimestamp {
+}
@@ -0,0 +1,154 @@
+package com.example.taskmanager.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * JSON form of the {@link UtcTimestamp} fields.
+ * Formatting writes the digits of the UTC fields straight into a char array
+ * instead of going through a SimpleDateFormat and Calendar per value, which
+ * dominated serializing long execution histories. Parsing uses one shared,
+ * thread-safe DateTimeFormatter and also accepts epoch milliseconds.
+ */
+public final class UtcTimestamps {
+    
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss.SSS'Z'";
+    
+    private static final int LENGTH = 24;
+    // SimpleDateFormat switches to the Julian calendar before 1582-10-15
+    private static final long GREGORIAN_CUTOVER_MILLIS = -12219292800000L;
+    private static final DateTimeFormatter PARSER = DateTimeFormatter.ofPattern(PATTERN, Locale.ROOT)
+        .withZone(ZoneOffset.UTC);
+    
+    private UtcTimestamps() {
+    }
+    
+    /**
+     * Formats a timestamp as PATTERN in UTC.
+     */
+    public static String format(Date date) {
+        return new String(formatChars(date.getTime()));
+    }
+    
+    /**
+     * Parses a PATTERN timestamp.
+     * @throws DateTimeParseException if the text does not match
+     */
+    public static Date parse(String text) {
+        Date date = Date.from(Instant.from(PARSER.parse(text)));
+        if (date.getTime() < GREGORIAN_CUTOVER_MILLIS) {
+            try {
+                return legacyFormat().parse(text);
+            } catch (ParseException e) {
+                throw new DateTimeParseException(e.getMessage(), text, e.getErrorOffset());
+            }
+        }
+        return date;
+    }
+    
+    static char[] formatChars(long epochMillis) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L), 0, ZoneOffset.UTC);
+        if (epochMillis < GREGORIAN_CUTOVER_MILLIS || time.getYear() > 9999) {
+            // Keep exactly what the pattern produced before for dates the fast path does not cover
+            return legacyFormat().format(new Date(epochMillis)).toCharArray();
+        }
+        char[] text = new char[LENGTH];
+        digits(text, 0, time.getYear(), 4);
+        text[4] = '-';
+        digits(text, 5, time.getMonthValue(), 2);
+        text[7] = '-';
+        digits(text, 8, time.getDayOfMonth(), 2);
+        text[10] = ' ';
+        digits(text, 11, time.getHour(), 2);
+        text[13] = ':';
+        digits(text, 14, time.getMinute(), 2);
+        text[16] = ':';
+        digits(text, 17, time.getSecond(), 2);
+        text[19] = '.';
+        digits(text, 20, (int) Math.floorMod(epochMillis, 1000L), 3);
+        text[23] = 'Z';
+        return text;
+    }
+    
+    private static void digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+    
+    private static SimpleDateFormat legacyFormat() {
+        SimpleDateFormat format = new SimpleDateFormat(PATTERN, Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+    
+    /**
+     * Writes PATTERN text, or epoch milliseconds with SerializationFeature.WRITE_DATES_AS_TIMESTAMPS
+     * (spring.jackson.serialization.write-dates-as-timestamps).
+     */
+    public static class Serializer extends StdSerializer<Date> {
+        
+        public Serializer() {
+            super(Date.class);
+        }
+        
+        @Override
+        public void serialize(Date value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+                generator.writeNumber(value.getTime());
+                return;
+            }
+            char[] text = formatChars(value.getTime());
+            generator.writeString(text, 0, text.length);
+        }
+    }
+    
+    /**
+     * Reads PATTERN text or epoch milliseconds.
+     */
+    public static class Deserializer extends StdDeserializer<Date> {
+        
+        public Deserializer() {
+            super(Date.class);
+        }
+        
+        @Override
+        public Date deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return new Date(parser.getLongValue());
+            }
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (Date) context.handleUnexpectedToken(Date.class, parser);
+            }
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return parse(text);
+            } catch (DateTimeParseException e) {
+                return (Date) context.handleWeirdStringValue(Date.class, text,
+                    "expected \"%s\" in UTC or epoch milliseconds", PATTERN);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.TaskExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Leases on queued executions for the work-queue mode.
+ * A worker claims the oldest queued execution, or one whose lease has
+ * expired, with a single find-and-modify, so two workers never claim the
+ * same execution. The claim count doubles as a fencing token: a worker only
+ * records its result if the execution is still leased to it under the same
+ * attempt, so a run that was taken over after a missed heartbeat is discarded.
+ * Cancellation requests for executions running on another node are left on
+ * the execution for its worker to pick up on the next heartbeat.
+ */
+@Component
+public class ExecutionLeases {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    /**
+     * Claims the oldest claimable execution for a worker, marking it running.
+     * @param workerId The claiming worker
+     * @param leaseMillis How long the lease lasts without a heartbeat
+     * @param maxAttempts Expired executions already claimed this often are left to {@link #failExhausted}
+     * @return The claimed execution, if any was claimable
+     */
+    public Optional<TaskExecution> claim(String workerId, long leaseMillis, int maxAttempts) {
+        Date now = new Date();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(ExecutionStatus.QUEUED).and("queuedAt").exists(true),
+                Criteria.where("status").is(ExecutionStatus.RUNNING).and("queuedAt").exists(true)
+                    .and("leaseExpiresAt").lt(now).and("attempts").lt(maxAttempts)))
+            .with(Sort.by("queuedAt"));
+        Update update = new Update()
+            .set("status", ExecutionStatus.RUNNING)
+            .set("workerId", workerId)
+            .set("leaseExpiresAt", new Date(now.getTime() + leaseMillis))
+            .set("startTime", now)
+            .inc("attempts", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), TaskExecution.class));
+    }
+    
+    /**
+     * Extends the leases a worker still holds.
+     * @return Number of leases renewed
+     */
+    public long renew(String workerId, Collection<String> executionIds, long leaseMillis) {
+        Query query = new Query(Criteria.where("_id").in(executionIds)
+            .and("workerId").is(workerId)
+            .and("status").is(ExecutionStatus.RUNNING)
+            .and("leaseExpiresAt").exists(true));
+        Update update = new Update().set("leaseExpiresAt", new Date(System.currentTimeMillis() + leaseMillis));
+        return mongoTemplate.updateMulti(query, update, TaskExecution.class).getModifiedCount();
+    }
+    
+    /**
+     * Ends a lease so the execution can no longer be claimed, before its result is saved.
+     * @param attempt The claim count the worker saw when it claimed the execution
+     * @return false if the lease was taken over (or the execution deleted) meanwhile
+     */
+    public boolean release(String executionId, String workerId, int attempt) {
+        Query query = new Query(Criteria.where("_id").is(executionId)
+            .and("workerId").is(workerId)
+            .and("attempts").is(attempt)
+            .and("status").is(ExecutionStatus.RUNNING)
+            .and("leaseExpiresAt").exists(true));
+        return mongoTemplate.updateFirst(query, new Update().unset("leaseExpiresAt"), TaskExecution.class)
+            .getModifiedCount() == 1;
+    }
+    
+    /**
+     * Puts an execution its worker gave up on (at shutdown) back in the queue,
+     * without counting the attempt.
+     * @return false if the lease was taken over meanwhile
+     */
+    public boolean requeue(String executionId, String workerId, int attempt) {
+        Query query = new Query(Criteria.where("_id").is(executionId)
+            .and("workerId").is(workerId)
+            .and("attempts").is(attempt)
+            .and("status").is(ExecutionStatus.RUNNING)
+            .and("leaseExpiresAt").exists(true));
+        Update update = new Update()
+            .set("status", ExecutionStatus.QUEUED)
+            .unset("leaseExpiresAt")
+            .unset("startTime")
+            .inc("attempts", -1);
+        return mongoTemplate.updateFirst(query, update, TaskExecution.class).getModifiedCount() == 1;
+    }
+    
+    /**
+     * Cancels an execution that no worker has started yet (in either execution mode).
+     * @return false if it is no longer queued
+     */
+    public boolean cancelQueued(String executionId) {
+        Query query = new Query(Criteria.where("_id").is(executionId).and("status").is(ExecutionStatus.QUEUED));
+        Update update = new Update()
+            .set("status", ExecutionStatus.CANCELLED)
+            .set("endTime", new Date())
+            .set("output", "Cancelled before it started");
+        return mongoTemplate.updateFirst(query, update, TaskExecution.class).getModifiedCount() == 1;
+    }
+    
+    /**
+     * Asks the worker holding a running execution to cancel it.
+     * @return false if the execution is not leased by any worker
+     */
+    public boolean requestCancel(String executionId) {
+        Query query = new Query(Criteria.where("_id").is(executionId)
+            .and("status").is(ExecutionStatus.RUNNING)
+            .and("leaseExpiresAt").exists(true));
+        return mongoTemplate.updateFirst(query, new Update().set("cancelRequested", true), TaskExecution.class)
+            .getModifiedCount() == 1;
+    }
+    
+    /**
+     * Executions of a worker whose cancellation was requested elsewhere.
+     * @return Their IDs
+     */
+    public List<String> cancelRequested(String workerId, Collection<String> executionIds) {
+        Query query = new Query(Criteria.where("_id").in(executionIds)
+            .and("workerId").is(workerId)
+            .and("cancelRequested").is(true));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, TaskExecution.class).stream()
+            .map(TaskExecution::getId)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Fails executions a node's own pool (not the work queue) left queued or
+     * running when it stopped; meant to run before that node takes new work.
+     * @param nodeId The node that ran them
+     * @return Number of executions failed
+     */
+    public long failAbandoned(String nodeId) {
+        Query query = new Query(Criteria.where("status").in(ExecutionStatus.QUEUED, ExecutionStatus.RUNNING)
+            .and("queuedAt").exists(false)
+            .and("workerId").is(nodeId));
+        Update update = new Update()
+            .set("status", ExecutionStatus.FAILED)
+            .set("endTime", new Date())
+            .set("output", "Execution was abandoned when node " + nodeId + " stopped");
+        return mongoTemplate.updateMulti(query, update, TaskExecution.class).getModifiedCount();
+    }
+    
+    /**
+     * Fails executions whose lease expired after their last allowed attempt.
+     * @return Number of executions failed
+     */
+    public long failExhausted(int maxAttempts) {
+        Date now = new Date();
+        Query query = new Query(Criteria.where("status").is(ExecutionStatus.RUNNING)
+            .and("queuedAt").exists(true)
+            .and("leaseExpiresAt").lt(now)
+            .and("attempts").gte(maxAttempts));
+        Update update = new Update()
+            .set("status", ExecutionStatus.FAILED)
+            .set("endTime", now)
+            .set("output", "Worker lease expired after " + maxAttempts + " attempts")
+            .unset("leaseExpiresAt");
+        return mongoTemplate.updateMulti(query, update, TaskExecution.class).getModifiedCount();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.TaskExecution;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed storage of execution output, whichever code path writes the execution.
+ * Output above compress-above-bytes is stored deflated as binary (outputDeflated)
+ * when that saves space, and compressed output above gridfs-above-bytes is
+ * spilled to GridFS (outputFileId), tagged with the task and execution IDs.
+ * The stored output size (outputBytes) is recorded for the execution statistics.
+ * Reads only attach a loader; the output is inflated or fetched the first
+ * time {@link TaskExecution#getOutput()} is called, e.g. when it is serialized.
+ * History listings read executions without the stored output fields, so they
+ * never reach the loader (see TaskExecutionRepository#findSummariesByTaskId).
+ */
+@Component
+public class ExecutionOutputStorage implements BeforeSaveCallback<TaskExecution>, AfterConvertCallback<TaskExecution> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionOutputStorage.class);
+    static final String OUTPUT = "output";
+    static final String OUTPUT_DEFLATED = "outputDeflated";
+    static final String OUTPUT_FILE_ID = "outputFileId";
+    static final String OUTPUT_BYTES = "outputBytes";
+    static final String SPILL_CONTENT_TYPE = "application/deflate";
+    
+    // The template's converter invokes this callback, so GridFS is resolved on first use
+    @Lazy
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+    
+    // Negative stores every output as plain text
+    @Value("${taskmanager.execution.output.compress-above-bytes:4096}")
+    private int compressAboveBytes;
+    
+    @Value("${taskmanager.execution.output.gridfs-above-bytes:262144}")
+    private int gridFsAboveBytes;
+    
+    @Override
+    public TaskExecution onBeforeSave(TaskExecution execution, Document document, String collection) {
+        byte[] spill = writeOutput(execution, document, compressAboveBytes, gridFsAboveBytes);
+        if (spill == null) {
+            // Output that moved back into the document must not leave its old spill behind
+            if (execution.getOutputFileId() != null) {
+                gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(execution.getOutputFileId()))));
+                execution.setOutputFileId(null);
+            }
+            return execution;
+        }
+        
+        // Replaced executions must not leave their previous spill behind
+        String executionId = ensureId(document);
+        gridFsTemplate.delete(spillsOf("executionId", executionId));
+        ObjectId fileId = gridFsTemplate.store(new ByteArrayInputStream(spill), executionId + ".out",
+            SPILL_CONTENT_TYPE, spillMetadata(execution.getTaskId(), executionId));
+        document.put(OUTPUT_FILE_ID, fileId);
+        execution.setOutputFileId(fileId.toHexString());
+        logger.info("Spilled {} bytes of execution {} output to GridFS file {}", spill.length, executionId, fileId);
+        return execution;
+    }
+    
+    @Override
+    public TaskExecution onAfterConvert(TaskExecution execution, Document document, String collection) {
+        if (document.get(OUTPUT) != null) {
+            return execution;
+        }
+        Binary deflated = document.get(OUTPUT_DEFLATED, Binary.class);
+        if (deflated != null) {
+            execution.setOutputLoader(() -> decompress(deflated.getData()));
+            return execution;
+        }
+        ObjectId fileId = document.getObjectId(OUTPUT_FILE_ID);
+        if (fileId != null) {
+            execution.setOutputFileId(fileId.toHexString());
+            execution.setOutputLoader(() -> decompress(loadSpill(fileId)));
+        }
+        return execution;
+    }
+    
+    /**
+     * Deletes the GridFS spills of all executions of a task.
+     */
+    public void deleteSpills(String taskId) {
+        gridFsTemplate.delete(spillsOf("taskId", taskId));
+    }
+    
+    /**
+     * Deletes the GridFS spills of the given executions.
+     */
+    public void deleteSpills(Collection<String> executionIds) {
+        gridFsTemplate.delete(new Query(Criteria.where("metadata.executionId").in(executionIds)));
+    }
+    
+    private byte[] loadSpill(ObjectId fileId) {
+        GridFsResource resource = gridFsTemplate.getResource(
+            gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId))));
+        try (InputStream content = resource.getInputStream()) {
+            return content.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load spilled output " + fileId, e);
+        }
+    }
+    
+    /**
+     * Writes the output of an execution into its document, as text or deflated, with its size.
+     * 
+     * @return Deflated output too large to keep in the document, or null
+     */
+    static byte[] writeOutput(TaskExecution execution, Document document, int compressAboveBytes, int gridFsAboveBytes) {
+        // Through the getter, so an execution that was read and saved again keeps its output
+        String output = execution.getOutput();
+        if (output == null) {
+            return null;
+        }
+        byte[] raw = output.getBytes(StandardCharsets.UTF_8);
+        execution.setOutputBytes((long) raw.length);
+        document.put(OUTPUT_BYTES, execution.getOutputBytes());
+        
+        byte[] deflated = compressAboveBytes >= 0 && raw.length > compressAboveBytes ? compress(raw) : null;
+        if (deflated == null) {
+            document.put(OUTPUT, output);
+            return null;
+        }
+        document.remove(OUTPUT);
+        if (deflated.length <= gridFsAboveBytes) {
+            document.put(OUTPUT_DEFLATED, new Binary(deflated));
+            return null;
+        }
+        return deflated;
+    }
+    
+    /**
+     * Spills are named after their execution, so new executions get their ID before the insert.
+     */
+    static String ensureId(Document document) {
+        Object id = document.get("_id");
+        if (id == null) {
+            id = new ObjectId();
+            document.put("_id", id);
+        }
+        return id instanceof ObjectId ? ((ObjectId) id).toHexString() : id.toString();
+    }
+    
+    static Query spillsOf(String key, String value) {
+        return new Query(Criteria.where("metadata." + key).is(value));
+    }
+    
+    static Document spillMetadata(String taskId, String executionId) {
+        return new Document("taskId", taskId).append("executionId", executionId);
+    }
+    
+    /**
+     * Deflates output.
+     * @return The compressed bytes, or null if compression does not save space
+     */
+    static byte[] compress(byte[] raw) {
+        // Speed over ratio: this runs on every save
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            // Incompressible output is cheaper to keep as text
+            return compressed.size() < raw.length ? compressed.toByteArray() : null;
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    static String decompress(byte[] deflated) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(deflated.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Stored execution output is truncated");
+                }
+                raw.write(buffer, 0, inflated);
+            }
+            return raw.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Stored execution output is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.ExecutionStats;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.TaskExecution;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incrementally maintained per-task execution statistics
+ * (taskmanager.stats.rollups.enabled). Every finished execution that is
+ * saved adds itself to its task's rollup document with a single upsert:
+ * counters, sums, extremes, exit codes and a duration histogram with four
+ * buckets per power of two, from which percentiles are estimated.
+ * Rollups count every run recorded while enabled; retention does not
+ * subtract deleted runs.
+ */
+@Component
+public class ExecutionRollups implements AfterSaveCallback<TaskExecution> {
+    
+    static final String COLLECTION = "task_execution_rollups";
+    
+    // The template invokes this callback, so it is resolved on first use
+    @Lazy
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${taskmanager.stats.rollups.enabled:false}")
+    private boolean enabled;
+    
+    @Override
+    public TaskExecution onAfterSave(TaskExecution execution, Document document, String collection) {
+        if (enabled && isFinished(execution)) {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(execution.getTaskId())),
+                rollupUpdate(execution), COLLECTION);
+        }
+        return execution;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Reads the rollups of the given tasks; tasks without one are left out.
+     */
+    public Map<String, ExecutionStats> find(Collection<String> taskIds) {
+        Map<String, ExecutionStats> stats = new LinkedHashMap<>();
+        for (Document rollup : mongoTemplate.find(new Query(Criteria.where("_id").in(taskIds)), Document.class, COLLECTION)) {
+            ExecutionStats taskStats = toStats(rollup);
+            stats.put(taskStats.getTaskId(), taskStats);
+        }
+        return stats;
+    }
+    
+    /**
+     * Drops the rollup of a deleted task.
+     */
+    public void delete(String taskId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(taskId)), COLLECTION);
+    }
+    
+    static boolean isFinished(TaskExecution execution) {
+        return (execution.getStatus() == ExecutionStatus.COMPLETED || execution.getStatus() == ExecutionStatus.FAILED)
+            && execution.getStartTime() != null && execution.getEndTime() != null;
+    }
+    
+    static Update rollupUpdate(TaskExecution execution) {
+        long durationMs = Math.max(0, execution.getEndTime().getTime() - execution.getStartTime().getTime());
+        Update update = new Update()
+            .inc("count", 1)
+            .inc("failed", execution.getStatus() == ExecutionStatus.FAILED ? 1 : 0)
+            .inc("durationMsSum", durationMs)
+            .max("maxDurationMs", durationMs)
+            .inc("durationHistogram." + bucketOf(durationMs), 1)
+            .min("firstRunAt", execution.getStartTime())
+            .max("lastRunAt", execution.getEndTime());
+        if (execution.getStatus() == ExecutionStatus.COMPLETED) {
+            Integer exitCode = execution.getExitCode();
+            update.inc("exitCodes." + (exitCode == null ? ExecutionStats.NO_EXIT_CODE : exitCode.toString()), 1);
+        }
+        if (execution.getOutputBytes() != null) {
+            update.inc("outputRuns", 1)
+                .inc("outputBytesSum", execution.getOutputBytes())
+                .max("maxOutputBytes", execution.getOutputBytes());
+        }
+        return update;
+    }
+    
+    static ExecutionStats toStats(Document rollup) {
+        long count = number(rollup, "count");
+        long failed = number(rollup, "failed");
+        long outputRuns = number(rollup, "outputRuns");
+        
+        Map<Integer, Long> histogram = new TreeMap<>();
+        Document buckets = rollup.get("durationHistogram", Document.class);
+        if (buckets != null) {
+            buckets.forEach((bucket, runs) -> histogram.put(Integer.parseInt(bucket), ((Number) runs).longValue()));
+        }
+        Long maxDurationMs = rollup.containsKey("maxDurationMs") ? number(rollup, "maxDurationMs") : null;
+        
+        Map<String, Long> exitCodes = new TreeMap<>();
+        Document codes = rollup.get("exitCodes", Document.class);
+        if (codes != null) {
+            codes.forEach((code, runs) -> exitCodes.put(code, ((Number) runs).longValue()));
+        }
+        
+        // Task IDs that look like ObjectIds are stored as such
+        Object id = rollup.get("_id");
+        return new ExecutionStats(
+            id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id),
+            ExecutionStats.SOURCE_ROLLUP,
+            count,
+            failed,
+            count == 0 ? 0 : (double) failed / count,
+            count == 0 ? null : number(rollup, "durationMsSum") / count,
+            percentile(histogram, count, 0.50, maxDurationMs),
+            percentile(histogram, count, 0.95, maxDurationMs),
+            percentile(histogram, count, 0.99, maxDurationMs),
+            maxDurationMs,
+            exitCodes,
+            outputRuns == 0 ? null : number(rollup, "outputBytesSum") / outputRuns,
+            outputRuns == 0 ? null : number(rollup, "maxOutputBytes"),
+            outputRuns == 0 ? null : number(rollup, "outputBytesSum"),
+            rollup.getDate("firstRunAt"),
+            rollup.getDate("lastRunAt"));
+    }
+    
+    /**
+     * Bucket of a duration: exact below 4 ms, then four buckets per power of two.
+     */
+    static int bucketOf(long durationMs) {
+        if (durationMs < 4) {
+            return (int) durationMs;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(durationMs);
+        int quarter = (int) (durationMs >>> (exponent - 2)) & 3;
+        return exponent * 4 + quarter;
+    }
+    
+    /**
+     * Largest duration that falls into a bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = bucket / 4;
+        int quarter = bucket % 4;
+        return ((5L + quarter) << (exponent - 2)) - 1;
+    }
+    
+    /**
+     * Nearest-rank percentile estimate: the upper bound of the bucket holding that rank.
+     */
+    static Long percentile(Map<Integer, Long> histogram, long count, double quantile, Long maxDurationMs) {
+        if (count == 0 || histogram.isEmpty()) {
+            return null;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        int bucket = 0;
+        for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+            bucket = entry.getKey();
+            seen += entry.getValue();
+            if (seen >= rank) {
+                break;
+            }
+        }
+        long estimate = upperBoundOf(bucket);
+        return maxDurationMs != null ? Math.min(estimate, maxDurationMs) : estimate;
+    }
+    
+    private static long number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.taskmanager.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds the normalized search fields stored with each Task and the terms
+ * used to query them. Names are indexed by their lower-case form (prefix
+ * search) and by all 1- to 3-character n-grams (substring search).
+ */
+public final class NameSearchTerms {
+    
+    public static final int MAX_GRAM_LENGTH = 3;
+    
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+    
+    private NameSearchTerms() {
+    }
+    
+    /**
+     * @return The lower-case form of a name used for matching
+     */
+    public static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * @return All distinct n-grams of a normalized name, 1 to MAX_GRAM_LENGTH characters long
+     */
+    public static List<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int length = 1; length <= MAX_GRAM_LENGTH; length++) {
+            for (int start = 0; start + length <= normalized.length(); start++) {
+                grams.add(normalized.substring(start, start + length));
+            }
+        }
+        return new ArrayList<>(grams);
+    }
+    
+    /**
+     * @return The distinct MAX_GRAM_LENGTH-grams a longer search term must all contain
+     */
+    public static List<String> queryGrams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int start = 0; start + MAX_GRAM_LENGTH <= normalized.length(); start++) {
+            grams.add(normalized.substring(start, start + MAX_GRAM_LENGTH));
+        }
+        return new ArrayList<>(grams);
+    }
+    
+    /**
+     * Escapes regex metacharacters so user input is matched literally.
+     */
+    public static String escapeRegex(String input) {
+        StringBuilder escaped = new StringBuilder(input.length() + 8);
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.TaskExecution;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeSaveCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of ExecutionOutputStorage for the reactive repositories.
+ * Same document layout; spilled outputs are fetched from GridFS without
+ * blocking when the execution is read, and inflated on first access.
+ */
+@Profile("reactive")
+@Component
+public class ReactiveExecutionOutputStorage
+        implements ReactiveBeforeSaveCallback<TaskExecution>, ReactiveAfterConvertCallback<TaskExecution> {
+    
+    // The template's converter invokes this callback, so GridFS is resolved on first use
+    @Lazy
+    @Autowired
+    private ReactiveGridFsTemplate gridFsTemplate;
+    
+    @Value("${taskmanager.execution.output.compress-above-bytes:4096}")
+    private int compressAboveBytes;
+    
+    @Value("${taskmanager.execution.output.gridfs-above-bytes:262144}")
+    private int gridFsAboveBytes;
+    
+    @Override
+    public Publisher<TaskExecution> onBeforeSave(TaskExecution execution, Document document, String collection) {
+        byte[] spill = ExecutionOutputStorage.writeOutput(execution, document, compressAboveBytes, gridFsAboveBytes);
+        if (spill == null) {
+            if (execution.getOutputFileId() == null) {
+                return Mono.just(execution);
+            }
+            // Output that moved back into the document must not leave its old spill behind
+            Query oldSpill = new Query(Criteria.where("_id").is(new ObjectId(execution.getOutputFileId())));
+            execution.setOutputFileId(null);
+            return gridFsTemplate.delete(oldSpill).thenReturn(execution);
+        }
+        
+        String executionId = ExecutionOutputStorage.ensureId(document);
+        return gridFsTemplate.delete(ExecutionOutputStorage.spillsOf("executionId", executionId))
+            .then(gridFsTemplate.store(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(spill)),
+                executionId + ".out", ExecutionOutputStorage.SPILL_CONTENT_TYPE,
+                ExecutionOutputStorage.spillMetadata(execution.getTaskId(), executionId)))
+            .map(fileId -> {
+                document.put(ExecutionOutputStorage.OUTPUT_FILE_ID, fileId);
+                execution.setOutputFileId(fileId.toHexString());
+                return execution;
+            });
+    }
+    
+    @Override
+    public Publisher<TaskExecution> onAfterConvert(TaskExecution execution, Document document, String collection) {
+        if (document.get(ExecutionOutputStorage.OUTPUT) != null) {
+            return Mono.just(execution);
+        }
+        Binary deflated = document.get(ExecutionOutputStorage.OUTPUT_DEFLATED, Binary.class);
+        if (deflated != null) {
+            execution.setOutputLoader(() -> ExecutionOutputStorage.decompress(deflated.getData()));
+            return Mono.just(execution);
+        }
+        ObjectId fileId = document.getObjectId(ExecutionOutputStorage.OUTPUT_FILE_ID);
+        if (fileId == null) {
+            return Mono.just(execution);
+        }
+        execution.setOutputFileId(fileId.toHexString());
+        // Serialization must not block, so the bytes are fetched now
+        return gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)))
+            .flatMap(gridFsTemplate::getResource)
+            .flatMap(resource -> DataBufferUtils.join(resource.getDownloadStream()))
+            .map(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                execution.setOutputLoader(() -> ExecutionOutputStorage.decompress(bytes));
+                return execution;
+            })
+            .defaultIfEmpty(execution);
+    }
+    
+    /**
+     * Deletes the GridFS spills of all executions of a task.
+     */
+    public Mono<Void> deleteSpills(String taskId) {
+        return gridFsTemplate.delete(ExecutionOutputStorage.spillsOf("taskId", taskId));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.TaskExecution;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterSaveCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of ExecutionRollups for executions saved through
+ * the reactive repositories.
+ */
+@Profile("reactive")
+@Component
+public class ReactiveExecutionRollups implements ReactiveAfterSaveCallback<TaskExecution> {
+    
+    @Lazy
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+    
+    @Value("${taskmanager.stats.rollups.enabled:false}")
+    private boolean enabled;
+    
+    @Override
+    public Publisher<TaskExecution> onAfterSave(TaskExecution execution, Document document, String collection) {
+        if (!enabled || !ExecutionRollups.isFinished(execution)) {
+            return Mono.just(execution);
+        }
+        return mongoTemplate.upsert(new Query(Criteria.where("_id").is(execution.getTaskId())),
+                ExecutionRollups.rollupUpdate(execution), ExecutionRollups.COLLECTION)
+            .thenReturn(execution);
+    }
+    
+    /**
+     * Drops the rollup of a deleted task.
+     */
+    public Mono<Void> delete(String taskId) {
+        return mongoTemplate.remove(new Query(Criteria.where("_id").is(taskId)), ExecutionRollups.COLLECTION).then();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.TaskExecution;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository for TaskExecution history (reactive profile).
+ */
+@Profile("reactive")
+@Repository
+public interface ReactiveTaskExecutionRepository extends ReactiveMongoRepository<TaskExecution, String> {
+    
+    /**
+     * Find executions of a task, most recent first.
+     * @param taskId The task ID
+     * @param pageable Page and size of the history slice
+     * @return Executions
+     */
+    Flux<TaskExecution> findByTaskIdOrderByStartTimeDesc(String taskId, Pageable pageable);
+    
+    /**
+     * Find executions of a task, most recent first, without their stored outputs.
+     * Outputs kept compressed or in GridFS are left out (outputBytes still gives
+     * their size), so listing a history never inflates or fetches them; outputs
+     * stored as text are returned as they are.
+     * @param taskId The task ID
+     * @param pageable Page and size of the history slice
+     * @return Executions
+     */
+    @Query(value = "{'taskId': ?0}", fields = "{'outputDeflated': 0, 'outputFileId': 0}", sort = "{'startTime': -1}")
+    Flux<TaskExecution> findSummariesByTaskId(String taskId, Pageable pageable);
+    
+    /**
+     * Delete the whole execution history of a task.
+     * @param taskId The task ID
+     */
+    Mono<Void> deleteByTaskId(String taskId);
+}
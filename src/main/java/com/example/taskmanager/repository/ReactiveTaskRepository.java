@@ -0,0 +1,15 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking repository for Task CRUD operations (reactive profile).
+ */
+@Profile("reactive")
+@Repository
+public interface ReactiveTaskRepository extends ReactiveMongoRepository<Task, String>, ReactiveTaskRepositoryCustom {
+    
+}
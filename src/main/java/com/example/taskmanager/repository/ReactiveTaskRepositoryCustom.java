@@ -0,0 +1,31 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Custom Task queries for the reactive repository; same semantics as
+ * TaskRepositoryCustom.
+ */
+public interface ReactiveTaskRepositoryCustom {
+    
+    /**
+     * Find tasks by name using the indexed search fields.
+     * @param name The search string, matched literally and case-insensitively
+     * @param prefixOnly true to match names starting with the string, false for names containing it
+     * @param page Page number (0-based)
+     * @param size Page size
+     * @return Matching tasks ordered by _id
+     */
+    Flux<Task> searchByName(String name, boolean prefixOnly, int page, int size);
+    
+    /**
+     * Atomically count an execution and advance lastExecutedAt.
+     * @param taskId The task ID
+     * @param executedAt End time of the execution
+     */
+    Mono<Void> recordExecution(String taskId, Date executedAt);
+}
@@ -0,0 +1,35 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * ReactiveMongoTemplate-backed implementation of ReactiveTaskRepositoryCustom.
+ */
+public class ReactiveTaskRepositoryImpl implements ReactiveTaskRepositoryCustom {
+    
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    
+    @Override
+    public Flux<Task> searchByName(String name, boolean prefixOnly, int page, int size) {
+        return reactiveMongoTemplate.find(TaskRepositoryImpl.searchQuery(name, prefixOnly, page, size), Task.class);
+    }
+    
+    @Override
+    public Mono<Void> recordExecution(String taskId, Date executedAt) {
+        return reactiveMongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(taskId)),
+            new Update().inc("executionCount", 1).max("lastExecutedAt", executedAt),
+            Task.class
+        ).then();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of TaskSearchFieldsCallback for saves through
+ * the reactive repositories.
+ */
+@Profile("reactive")
+@Component
+public class ReactiveTaskSearchFieldsCallback implements ReactiveBeforeConvertCallback<Task> {
+    
+    private final TaskSearchFieldsCallback delegate = new TaskSearchFieldsCallback();
+    
+    @Override
+    public Publisher<Task> onBeforeConvert(Task task, String collection) {
+        return Mono.just(delegate.onBeforeConvert(task, collection));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.TaskExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for TaskExecution history.
+ * Queries are served by the (taskId, startTime) compound index.
+ */
+@Repository
+public interface TaskExecutionRepository extends MongoRepository<TaskExecution, String> {
+    
+    /**
+     * Find executions of a task, most recent first.
+     * @param taskId The task ID
+     * @param pageable Page and size of the history slice
+     * @return List of executions
+     */
+    List<TaskExecution> findByTaskIdOrderByStartTimeDesc(String taskId, Pageable pageable);
+    
+    /**
+     * Find executions of a task, most recent first, without their stored outputs.
+     * Outputs kept compressed or in GridFS are left out (outputBytes still gives
+     * their size), so listing a history never inflates or fetches them; outputs
+     * stored as text are returned as they are.
+     * @param taskId The task ID
+     * @param pageable Page and size of the history slice
+     * @return List of executions
+     */
+    @Query(value = "{'taskId': ?0}", fields = "{'outputDeflated': 0, 'outputFileId': 0}", sort = "{'startTime': -1}")
+    List<TaskExecution> findSummariesByTaskId(String taskId, Pageable pageable);
+    
+    /**
+     * Find a single execution belonging to a task.
+     * @param id The execution ID
+     * @param taskId The task ID
+     * @return The execution, if it exists
+     */
+    Optional<TaskExecution> findByIdAndTaskId(String id, String taskId);
+    
+    /**
+     * Count the executions of a task.
+     * @param taskId The task ID
+     * @return Number of recorded executions
+     */
+    long countByTaskId(String taskId);
+    
+    /**
+     * Delete the whole execution history of a task.
+     * @param taskId The task ID
+     */
+    void deleteByTaskId(String taskId);
+}
@@ -12,13 +12,20 @@ import java.util.List;
  * Extends MongoRepository to provide standard database operations.
  */
 @Repository
-public interface TaskRepository extends MongoRepository<Task, String> {
+public interface TaskRepository extends MongoRepository<Task, String>, TaskRepositoryCustom {
     
     /**
-     * Find tasks by name containing the search string (case-insensitive).
-     * @param name The search string
-     * @return List of matching tasks
+     * Find all tasks that have a recurring schedule.
+     * @return List of scheduled tasks (without search fields)
      */
-    @Query("{'name': {$regex: ?0, $options: 'i'}}")
-    List<Task> findByNameContaining(String name);
+    @Query(value = "{'schedule': {$ne: null}}", fields = "{'nameLower': 0, 'nameGrams': 0}")
+    List<Task> findScheduled();
+    
+    /**
+     * Find the IDs of an owner's tasks (served by the owner index).
+     * @param owner The owner name
+     * @return Tasks with only the ID populated
+     */
+    @Query(value = "{'owner': ?0}", fields = "{'_id': 1}")
+    List<Task> findIdsByOwner(String owner);
 }
@@ -0,0 +1,69 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Custom Task queries that need MongoTemplate: keyset pagination,
+ * field projection, cursor-backed streaming and indexed name search.
+ */
+public interface TaskRepositoryCustom {
+    
+    /**
+     * Find the next page of tasks ordered by _id (keyset pagination).
+     * @param afterId ID of the last task of the previous page, or null for the first page
+     * @param limit Maximum number of tasks to return
+     * @param fields Fields to include, or empty for all fields
+     * @return List of tasks with _id greater than afterId
+     */
+    List<Task> findPage(String afterId, int limit, Collection<String> fields);
+    
+    /**
+     * Stream all tasks from a Mongo cursor, ordered by _id.
+     * The caller must close the stream.
+     * @param fields Fields to include, or empty for all fields
+     * @return Stream of tasks
+     */
+    Stream<Task> streamAll(Collection<String> fields);
+    
+    /**
+     * Find tasks by name (case-insensitive) using the indexed search fields.
+     * Input is matched literally, never as a regex.
+     * @param name The search string
+     * @param prefixOnly true to match names starting with the search string,
+     *                   false to match names containing it
+     * @param page Page number (0-based)
+     * @param size Page size
+     * @return List of matching tasks ordered by _id
+     */
+    List<Task> searchByName(String name, boolean prefixOnly, int page, int size);
+    
+    /**
+     * Atomically bump the execution counter and last execution time of a task
+     * with a single server-side update; the task document is not loaded.
+     * @param taskId The task ID
+     * @param executedAt End time of the execution
+     */
+    void recordExecution(String taskId, Date executedAt);
+    
+    /**
+     * Apply {@link #recordExecution} for many executions in one bulk write.
+     * @param executions Finished executions
+     */
+    void recordExecutions(List<TaskExecution> executions);
+    
+    /**
+     * Insert new tasks with one bulk write.
+     * Ordered writes stop at the first failing task; unordered writes attempt every task.
+     * @param tasks Tasks with their IDs assigned
+     * @param ordered Whether to stop at the first failure
+     * @return Reason per index of each task that was attempted and not inserted
+     */
+    Map<Integer, String> insertAll(List<Task> tasks, boolean ordered);
+}
@@ -0,0 +1,151 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate-backed implementation of TaskRepositoryCustom.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+    
+    private static final int DUPLICATE_KEY = 11000;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<Task> findPage(String afterId, int limit, Collection<String> fields) {
+        Query query = projectedQuery(fields);
+        if (afterId != null) {
+            query.addCriteria(afterIdCriteria(afterId));
+        }
+        query.limit(limit);
+        return mongoTemplate.find(query, Task.class);
+    }
+    
+    @Override
+    public Stream<Task> streamAll(Collection<String> fields) {
+        return mongoTemplate.stream(projectedQuery(fields), Task.class);
+    }
+    
+    @Override
+    public List<Task> searchByName(String name, boolean prefixOnly, int page, int size) {
+        return mongoTemplate.find(searchQuery(name, prefixOnly, page, size), Task.class);
+    }
+    
+    /**
+     * Builds the indexed name search query (shared with the reactive repository).
+     */
+    static Query searchQuery(String name, boolean prefixOnly, int page, int size) {
+        String term = NameSearchTerms.normalize(name);
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        
+        // An empty term matches every task, as the unanchored regex did
+        if (term.isEmpty()) {
+            return query.skip((long) page * size).limit(size);
+        }
+        
+        if (prefixOnly) {
+            // Anchored, case-sensitive regex on the lower-case field is an index range scan
+            query.addCriteria(Criteria.where("nameLower").regex("^" + NameSearchTerms.escapeRegex(term)));
+        } else if (term.length() <= NameSearchTerms.MAX_GRAM_LENGTH) {
+            // Short terms are stored grams themselves
+            query.addCriteria(Criteria.where("nameGrams").is(term));
+        } else {
+            // Candidates must contain every trigram; the regex only verifies their order
+            query.addCriteria(Criteria.where("nameGrams").all(NameSearchTerms.queryGrams(term)));
+            query.addCriteria(Criteria.where("nameLower").regex(NameSearchTerms.escapeRegex(term)));
+        }
+        
+        return query.skip((long) page * size).limit(size);
+    }
+    
+    @Override
+    public void recordExecution(String taskId, Date executedAt) {
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(taskId)),
+            new Update().inc("executionCount", 1).max("lastExecutedAt", executedAt),
+            Task.class
+        );
+    }
+    
+    @Override
+    public void recordExecutions(List<TaskExecution> executions) {
+        if (executions.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        for (TaskExecution execution : executions) {
+            bulk.updateOne(
+                new Query(Criteria.where("_id").is(execution.getTaskId())),
+                new Update().inc("executionCount", 1).max("lastExecutedAt", execution.getEndTime())
+            );
+        }
+        bulk.execute();
+    }
+    
+    @Override
+    public Map<Integer, String> insertAll(List<Task> tasks, boolean ordered) {
+        if (tasks.isEmpty()) {
+            return Map.of();
+        }
+        // Bulk inserts run the entity callbacks, so the search fields are filled in
+        BulkOperations bulk = mongoTemplate.bulkOps(
+            ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED, Task.class);
+        bulk.insert(tasks);
+        try {
+            bulk.execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failed = new TreeMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.put(error.getIndex(), error.getCode() == DUPLICATE_KEY
+                    ? "Task already exists with id: " + tasks.get(error.getIndex()).getId()
+                    : error.getMessage());
+            }
+            return failed;
+        }
+    }
+    
+    private Query projectedQuery(Collection<String> fields) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        if (fields.isEmpty()) {
+            // Search fields are never returned to clients
+            query.fields().exclude("nameLower").exclude("nameGrams").exclude("argv");
+        }
+        fields.forEach(field -> query.fields().include(field));
+        return query;
+    }
+    
+    /**
+     * Server-generated IDs are ObjectIds, client-supplied ones may be plain strings.
+     * Mongo orders strings before ObjectIds and compares only within a type, so
+     * after a string ID the remaining page is larger strings plus all ObjectIds.
+     */
+    private Criteria afterIdCriteria(String afterId) {
+        if (ObjectId.isValid(afterId)) {
+            return Criteria.where("_id").gt(new ObjectId(afterId));
+        }
+        return new Criteria().orOperator(
+            Criteria.where("_id").gt(afterId),
+            Criteria.where("_id").type(7)
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.Task;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the derived name search fields of a Task in sync with its name
+ * on every save, whichever code path writes the task.
+ */
+@Component
+public class TaskSearchFieldsCallback implements BeforeConvertCallback<Task> {
+    
+    @Override
+    public Task onBeforeConvert(Task task, String collection) {
+        String normalized = NameSearchTerms.normalize(task.getName());
+        task.setNameLower(normalized);
+        task.setNameGrams(NameSearchTerms.grams(normalized));
+        return task;
+    }
+}
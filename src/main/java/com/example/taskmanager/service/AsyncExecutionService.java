@@ -0,0 +1,361 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.exception.ExecutionCancelledException;
+import com.example.taskmanager.exception.ExecutionNotFoundException;
+import com.example.taskmanager.exception.ExecutionNotRunningException;
+import com.example.taskmanager.exception.ExecutionRejectedException;
+import com.example.taskmanager.exception.TaskNotFoundException;
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.ExecutionLeases;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for asynchronous task execution.
+ * Runs commands on a bounded worker pool so HTTP request threads return immediately.
+ * Rejects work when the queue is full or the owner has too many runs in flight.
+ * In virtual-thread mode every run gets its own virtual thread and the pool
+ * bound is replaced by a cap on runs in flight.
+ * In work-queue mode submissions are handed to ExecutionWorkQueue instead,
+ * and worker nodes cap their own concurrency; the per-owner limit only
+ * applies to runs on this node's pool.
+ * Submitted executions can be cancelled until they finish: queued ones are
+ * marked cancelled, running ones are stopped through RunningExecutions, or
+ * on the worker holding them in work-queue mode.
+ * Executions of the local pool record the node that took them
+ * (taskmanager.execution.node-id, the host name by default); when that node
+ * starts again it fails whatever it left queued or running.
+ */
+@Service
+public class AsyncExecutionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecutionService.class);
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private CommandExecutorService commandExecutor;
+    
+    @Autowired
+    private ExecutionOutputStreams outputStreams;
+    
+    @Autowired
+    private ExecutionMetrics metrics;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @Autowired
+    private ExecutionWorkQueue workQueue;
+    
+    @Autowired
+    private RunningExecutions runningExecutions;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Autowired
+    private ExecutionLeases leases;
+    
+    @Value("${taskmanager.execution.pool.core-size:4}")
+    private int corePoolSize;
+    
+    @Value("${taskmanager.execution.pool.max-size:16}")
+    private int maxPoolSize;
+    
+    @Value("${taskmanager.execution.pool.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${taskmanager.execution.per-owner-limit:4}")
+    private int perOwnerLimit;
+    
+    @Value("${taskmanager.execution.virtual-threads:false}")
+    private boolean virtualThreads;
+    
+    @Value("${taskmanager.execution.virtual-threads.max-in-flight:10000}")
+    private int virtualMaxInFlight;
+    
+    // Empty uses the host name, which survives a restart of the process
+    @Value("${taskmanager.execution.node-id:}")
+    private String nodeId;
+    
+    // Queued + running executions per task owner
+    private final ConcurrentHashMap<String, Integer> inFlightByOwner = new ConcurrentHashMap<>();
+    
+    private ExecutorService workerPool;
+    
+    // Bounds runs in flight in virtual-thread mode; null for the platform pool
+    private Semaphore virtualAdmission;
+    
+    @PostConstruct
+    void failAbandonedExecutions() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = localHostName();
+        }
+        // Runs before the controllers take requests, so nothing of this process is affected
+        long failed = leases.failAbandoned(nodeId);
+        if (failed > 0) {
+            logger.warn("Failed {} executions left queued or running by the previous run of node {}", failed, nodeId);
+        }
+    }
+    
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+    
+    @PostConstruct
+    void startWorkerPool() {
+        if (virtualThreads && VirtualThreadSupport.isAvailable()) {
+            workerPool = VirtualThreadSupport.newVirtualThreadPerTaskExecutor();
+            virtualAdmission = new Semaphore(virtualMaxInFlight);
+            logger.info("Execution worker pool started on virtual threads (max in flight: {}, per-owner limit: {})",
+                virtualMaxInFlight, perOwnerLimit);
+            return;
+        }
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "task-exec-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        
+        workerPool = new ThreadPoolExecutor(
+            corePoolSize, maxPoolSize,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            threadFactory,
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        logger.info("Execution worker pool started (core: {}, max: {}, queue: {}, per-owner limit: {})",
+            corePoolSize, maxPoolSize, queueCapacity, perOwnerLimit);
+    }
+    
+    @PreDestroy
+    void stopWorkerPool() {
+        workerPool.shutdown();
+    }
+    
+    /**
+     * Submit a task for asynchronous execution.
+     *
+     * @param id The task ID
+     * @param timeoutSeconds Timeout of this run, or null for the task's
+     * @return The queued execution record; poll it by its ID for the result
+     * @throws ExecutionRejectedException if the pool or owner limit is exhausted (not in work-queue mode)
+     */
+    public TaskExecution submitExecution(String id, Integer timeoutSeconds) {
+        logger.info("Submitting task with id: {}", id);
+        
+        Timer.Sample load = metrics.startStage();
+        Task task = taskCache.get(id)
+            .orElseThrow(() -> new TaskNotFoundException(id));
+        metrics.recordStage(load, ExecutionMetrics.STAGE_LOAD, task.getCommand());
+        commandValidator.checkCommand(task.getCommand());
+        int timeout = timeouts.resolve(task, timeoutSeconds);
+        
+        if (workQueue.isEnabled()) {
+            return workQueue.enqueue(task, timeout);
+        }
+        
+        String owner = task.getOwner();
+        acquireOwnerSlot(owner);
+        
+        TaskExecution execution = new TaskExecution();
+        execution.setId(new ObjectId().toHexString());
+        execution.setTaskId(task.getId());
+        execution.setStatus(ExecutionStatus.QUEUED);
+        execution.setTimeoutSeconds(timeout);
+        execution.setWorkerId(nodeId);
+        
+        // Opened now so the execution can be cancelled while it waits for a worker
+        RunningExecutions.Run run = runningExecutions.open(execution.getId());
+        try {
+            taskExecutionRepository.insert(execution);
+            outputStreams.open(execution.getId());
+            dispatch(() -> runExecution(task, execution, run));
+        } catch (RejectedExecutionException e) {
+            runningExecutions.close(run);
+            releaseOwnerSlot(owner);
+            outputStreams.close(execution.getId(), ExecutionStatus.FAILED);
+            taskExecutionRepository.deleteById(execution.getId());
+            throw new ExecutionRejectedException(
+                "Execution capacity exhausted, too many executions pending. Retry later."
+            );
+        } catch (RuntimeException e) {
+            runningExecutions.close(run);
+            releaseOwnerSlot(owner);
+            outputStreams.close(execution.getId(), ExecutionStatus.FAILED);
+            throw e;
+        }
+        
+        return execution;
+    }
+    
+    /**
+     * Cancel a queued or running execution.
+     * Queued executions are cancelled at once; running ones are stopped by
+     * the node running them (in work-queue mode possibly after a heartbeat),
+     * which records them as cancelled.
+     *
+     * @param id The task ID
+     * @param executionId The execution ID
+     * @return The execution as it is now
+     * @throws ExecutionNotRunningException if the execution has already finished
+     */
+    public TaskExecution cancelExecution(String id, String executionId) {
+        logger.info("Cancelling execution {} of task: {}", executionId, id);
+        
+        TaskExecution execution = taskExecutionRepository.findByIdAndTaskId(executionId, id)
+            .orElseThrow(() -> new ExecutionNotFoundException(id, executionId));
+        ExecutionStatus status = execution.getStatus();
+        if (status != ExecutionStatus.QUEUED && status != ExecutionStatus.RUNNING) {
+            throw new ExecutionNotRunningException(executionId, String.valueOf(status));
+        }
+        
+        boolean stoppedHere = runningExecutions.cancel(executionId);
+        if (!leases.cancelQueued(executionId) && !stoppedHere) {
+            // Running on another node; only work-queue workers watch for this
+            leases.requestCancel(executionId);
+        }
+        return taskExecutionRepository.findById(executionId).orElse(execution);
+    }
+    
+    private void dispatch(Runnable run) {
+        if (virtualAdmission == null) {
+            workerPool.execute(run);
+            return;
+        }
+        
+        if (!virtualAdmission.tryAcquire()) {
+            throw new RejectedExecutionException("Virtual execution limit reached");
+        }
+        try {
+            workerPool.execute(() -> {
+                try {
+                    run.run();
+                } finally {
+                    virtualAdmission.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualAdmission.release();
+            throw e;
+        }
+    }
+    
+    private void runExecution(Task task, TaskExecution execution, RunningExecutions.Run run) {
+        try {
+            execution.setStartTime(new Date());
+            execution.setStatus(ExecutionStatus.RUNNING);
+            taskExecutionRepository.save(execution);
+            
+            try {
+                CommandResult result = commandExecutor.executeCommand(task.getCommand(), task.getArgv(),
+                    chunk -> outputStreams.publish(execution.getId(), chunk), run, execution.getTimeoutSeconds());
+                execution.setOutput(result.getOutput());
+                execution.setExitCode(result.getExitCode());
+                execution.setStatus(ExecutionStatus.COMPLETED);
+            } catch (ExecutionCancelledException e) {
+                logger.info("Asynchronous execution {}: {}", execution.getId(), e.getMessage());
+                execution.setOutput(e.getMessage());
+                execution.setStatus(e.isShutdown() ? ExecutionStatus.FAILED : ExecutionStatus.CANCELLED);
+            } catch (CommandExecutionException e) {
+                logger.error("Asynchronous execution {} failed: {}", execution.getId(), e.getMessage());
+                execution.setOutput(e.getMessage());
+                execution.setStatus(ExecutionStatus.FAILED);
+            } catch (RuntimeException e) {
+                logger.error("Asynchronous execution {} failed unexpectedly", execution.getId(), e);
+                execution.setOutput("Execution failed: " + e);
+                execution.setStatus(ExecutionStatus.FAILED);
+            }
+            
+            execution.setEndTime(new Date());
+            Timer.Sample save = metrics.startStage();
+            taskExecutionRepository.save(execution);
+            taskCache.recordExecution(task.getId(), execution.getEndTime());
+            metrics.recordStage(save, ExecutionMetrics.STAGE_SAVE, task.getCommand());
+        } catch (RuntimeException e) {
+            logger.error("Asynchronous execution {} could not be recorded", execution.getId(), e);
+            recordFailure(execution, e);
+        } finally {
+            runningExecutions.close(run);
+            releaseOwnerSlot(task.getOwner());
+            outputStreams.close(execution.getId(),
+                execution.getStatus() == ExecutionStatus.RUNNING ? ExecutionStatus.FAILED : execution.getStatus());
+        }
+    }
+    
+    /**
+     * Best-effort save of an execution whose normal save failed, so it does
+     * not stay queued or running; if this fails too, the node's next start fails it.
+     */
+    private void recordFailure(TaskExecution execution, RuntimeException cause) {
+        if (execution.getStatus() == ExecutionStatus.QUEUED || execution.getStatus() == ExecutionStatus.RUNNING) {
+            execution.setOutput("Execution failed: " + cause);
+            execution.setStatus(ExecutionStatus.FAILED);
+        }
+        if (execution.getEndTime() == null) {
+            execution.setEndTime(new Date());
+        }
+        try {
+            taskExecutionRepository.save(execution);
+        } catch (RuntimeException e) {
+            logger.error("Execution {} stays {} until node {} restarts: {}",
+                execution.getId(), execution.getStatus(), nodeId, e.getMessage());
+        }
+    }
+    
+    private void acquireOwnerSlot(String owner) {
+        inFlightByOwner.compute(owner, (key, inFlight) -> {
+            int current = inFlight == null ? 0 : inFlight;
+            if (current >= perOwnerLimit) {
+                throw new ExecutionRejectedException(
+                    "Owner '" + owner + "' already has " + perOwnerLimit + " executions in flight. Retry later."
+                );
+            }
+            return current + 1;
+        });
+    }
+    
+    private void releaseOwnerSlot(String owner) {
+        inFlightByOwner.computeIfPresent(owner, (key, inFlight) -> inFlight <= 1 ? null : inFlight - 1);
+    }
+}
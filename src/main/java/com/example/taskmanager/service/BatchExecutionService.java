@@ -0,0 +1,198 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.model.BatchExecutionRequest;
+import com.example.taskmanager.model.BatchExecutionResult;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for executing many tasks in one request.
+ * Loads all task definitions with one query, runs their commands in parallel
+ * on a bounded pool and writes all results back with bulk writes.
+ */
+@Service
+public class BatchExecutionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutionService.class);
+    private static final int MAX_BATCH_SIZE = 1000;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private CommandExecutorService commandExecutor;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Value("${taskmanager.batch.parallelism:8}")
+    private int parallelism;
+    
+    private ExecutorService batchPool;
+    
+    @PostConstruct
+    void startBatchPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        batchPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-exec-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopBatchPool() {
+        batchPool.shutdownNow();
+    }
+    
+    /**
+     * Execute all tasks selected by the request.
+     * 
+     * @param request Task IDs or a name filter
+     * @return One result per requested task, in completion order (missing and rejected tasks first)
+     */
+    public List<BatchExecutionResult> executeBatch(BatchExecutionRequest request) {
+        List<Task> tasks = loadTasks(request);
+        logger.info("Executing batch of {} tasks with parallelism {}", tasks.size(), parallelism);
+        
+        List<BatchExecutionResult> results = new ArrayList<>();
+        if (request.getIds() != null) {
+            Set<String> found = new HashSet<>();
+            tasks.forEach(task -> found.add(task.getId()));
+            for (String id : new LinkedHashSet<>(request.getIds())) {
+                if (!found.contains(id)) {
+                    results.add(new BatchExecutionResult(id, null, "NOT_FOUND", null, "Task not found with id: " + id));
+                }
+            }
+        }
+        
+        // Commands no longer allowed by the current allowlist are not run
+        List<Task> runnable = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            try {
+                commandValidator.checkCommand(task.getCommand());
+                runnable.add(task);
+            } catch (InvalidCommandException e) {
+                results.add(new BatchExecutionResult(task.getId(), null, "REJECTED", null, e.getMessage()));
+            }
+        }
+        tasks = runnable;
+        
+        CompletionService<TaskExecution> completion = new ExecutorCompletionService<>(batchPool);
+        tasks.forEach(task -> completion.submit(() -> run(task)));
+        
+        List<TaskExecution> executions = new ArrayList<>(tasks.size());
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                executions.add(completion.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Batch execution was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new CommandExecutionException("Batch execution failed: " + e.getCause().getMessage(), e);
+        }
+        
+        // One insertMany for the history, one bulk update for the task counters
+        taskExecutionRepository.insert(executions);
+        taskCache.recordExecutions(executions);
+        
+        for (TaskExecution execution : executions) {
+            results.add(new BatchExecutionResult(
+                execution.getTaskId(),
+                execution.getId(),
+                execution.getStatus().name(),
+                execution.getEndTime().getTime() - execution.getStartTime().getTime(),
+                execution.getStatus() == ExecutionStatus.FAILED ? execution.getOutput() : null
+            ));
+        }
+        return results;
+    }
+    
+    private List<Task> loadTasks(BatchExecutionRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byName = request.getName() != null;
+        if (byIds == byName) {
+            throw new IllegalArgumentException("Provide either a non-empty 'ids' list or a 'name' filter");
+        }
+        if (byIds && request.getIds().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch can execute at most " + MAX_BATCH_SIZE + " tasks");
+        }
+        
+        if (byIds) {
+            List<Task> tasks = new ArrayList<>();
+            taskRepository.findAllById(new LinkedHashSet<>(request.getIds())).forEach(tasks::add);
+            return tasks;
+        }
+        // One extra match tells a filter that selects too many tasks from one that fits
+        List<Task> tasks = taskRepository.searchByName(request.getName(), false, 0, MAX_BATCH_SIZE + 1);
+        if (tasks.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Name filter '" + request.getName() + "' matches more than "
+                + MAX_BATCH_SIZE + " tasks, the most a batch can execute; use a narrower filter");
+        }
+        return tasks;
+    }
+    
+    /**
+     * Runs one task; failures are captured in the execution, never thrown.
+     */
+    private TaskExecution run(Task task) {
+        TaskExecution execution = new TaskExecution();
+        execution.setId(new ObjectId().toHexString());
+        execution.setTaskId(task.getId());
+        execution.setStartTime(new Date());
+        try {
+            CommandResult result = commandExecutor.executeCommand(task.getCommand(), task.getArgv(), null,
+                null, timeouts.resolve(task, null));
+            execution.setOutput(result.getOutput());
+            execution.setExitCode(result.getExitCode());
+            execution.setStatus(ExecutionStatus.COMPLETED);
+        } catch (CommandExecutionException e) {
+            logger.error("Batch execution of task {} failed: {}", task.getId(), e.getMessage());
+            execution.setOutput(e.getMessage());
+            execution.setStatus(ExecutionStatus.FAILED);
+        } catch (RuntimeException e) {
+            // Anything else fails this task only, not the rest of the batch
+            logger.error("Batch execution of task {} failed unexpectedly", task.getId(), e);
+            execution.setOutput("Batch execution failed: " + e);
+            execution.setStatus(ExecutionStatus.FAILED);
+        }
+        execution.setEndTime(new Date());
+        return execution;
+    }
+}
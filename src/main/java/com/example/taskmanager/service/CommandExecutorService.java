@@ -1,24 +1,129 @@
 package com.example.taskmanager.service;
 
 import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.exception.ExecutionCancelledException;
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Service for executing shell commands securely using ProcessBuilder.
  * Uses ProcessBuilder instead of Runtime.exec() for better security.
+ * Output is drained on a separate thread while the caller waits for process
+ * exit. Timeouts are not measured by the waiting thread: every run is
+ * registered with RunningExecutions, whose watchdog kills the process tree
+ * at the deadline or when the run is cancelled.
+ * With taskmanager.execution.virtual-threads=true the drain threads are
+ * virtual threads (Java 21+). Captured output is capped at
+ * taskmanager.execution.output.max-bytes (head and tail kept).
+ * taskmanager.execution.launch-mechanism selects how the JDK starts processes
+ * (POSIX_SPAWN, VFORK or FORK); it only applies if set before the first
+ * process of the JVM is started, which is why it is applied at startup.
  */
 @Service
 public class CommandExecutorService {
     
     private static final Logger logger = LoggerFactory.getLogger(CommandExecutorService.class);
-    private static final int TIMEOUT_SECONDS = 30;
+    private static final int READ_BUFFER_SIZE = 8192;
+    // Last line of the output of a command that exited non-zero, for readers only
+    static final String EXIT_CODE_LINE = "Exit code: ";
+    private static final String LAUNCH_MECHANISM_PROPERTY = "jdk.lang.Process.launchMechanism";
+    private static final Set<String> LAUNCH_MECHANISMS = Set.of("POSIX_SPAWN", "VFORK", "FORK");
+    
+    @Autowired
+    private ExecutionMetrics metrics;
+    
+    @Autowired
+    private ObservationRegistry observationRegistry;
+    
+    @Autowired
+    private RunningExecutions runningExecutions;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Value("${taskmanager.execution.virtual-threads:false}")
+    private boolean virtualThreads;
+    
+    @Value("${taskmanager.execution.output.max-bytes:1048576}")
+    private int maxOutputBytes;
+    
+    // Empty keeps the JDK default (POSIX_SPAWN through jspawnhelper on Linux)
+    @Value("${taskmanager.execution.launch-mechanism:}")
+    private String launchMechanism;
+    
+    private ExecutorService outputDrainers;
+    
+    @PostConstruct
+    void applyLaunchMechanism() {
+        if (launchMechanism.isBlank()) {
+            return;
+        }
+        String mechanism = launchMechanism.trim().toUpperCase(Locale.ROOT);
+        if (!LAUNCH_MECHANISMS.contains(mechanism)) {
+            throw new IllegalArgumentException("Unknown taskmanager.execution.launch-mechanism '"
+                + launchMechanism + "', expected one of " + LAUNCH_MECHANISMS);
+        }
+        // An explicit -Djdk.lang.Process.launchMechanism wins
+        String current = System.getProperty(LAUNCH_MECHANISM_PROPERTY);
+        if (current != null && !current.equalsIgnoreCase(mechanism)) {
+            logger.warn("Process launch mechanism {} already set on the JVM; ignoring {}", current, mechanism);
+            return;
+        }
+        System.setProperty(LAUNCH_MECHANISM_PROPERTY, mechanism);
+        logger.info("Process launch mechanism: {}", mechanism);
+    }
+    
+    @PostConstruct
+    void startOutputDrainers() {
+        if (virtualThreads && VirtualThreadSupport.isAvailable()) {
+            outputDrainers = VirtualThreadSupport.newVirtualThreadPerTaskExecutor();
+            logger.info("Command output is drained on virtual threads");
+            return;
+        }
+        if (virtualThreads) {
+            logger.warn("Virtual threads requested but not supported by this JVM ({}); using platform threads",
+                Runtime.version());
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        outputDrainers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cmd-output-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopOutputDrainers() {
+        outputDrainers.shutdownNow();
+    }
     
     /**
      * Executes a shell command and returns the output.
@@ -29,52 +134,123 @@ public class CommandExecutorService {
      * @throws CommandExecutionException if execution fails
      */
     public String executeCommand(String command) {
+        return executeCommand(command, null, null);
+    }
+    
+    /**
+     * Executes a shell command, passing output chunks to a listener as they arrive.
+     * 
+     * @param command The command to execute
+     * @param outputListener Receives decoded output chunks while the command runs, may be null
+     * @return The (bounded) command output as a string
+     * @throws CommandExecutionException if execution fails
+     */
+    public String executeCommand(String command, Consumer<String> outputListener) {
+        return executeCommand(command, null, outputListener);
+    }
+    
+    /**
+     * Executes a pre-parsed command with the default timeout, passing output chunks to a listener as they arrive.
+     * 
+     * @param command The command line (used for logging and metrics)
+     * @param argv Program and arguments parsed from the command, or null to parse it now
+     * @param outputListener Receives decoded output chunks while the command runs, may be null
+     * @return The (bounded) command output as a string
+     * @throws CommandExecutionException if execution fails
+     */
+    public String executeCommand(String command, List<String> argv, Consumer<String> outputListener) {
+        return executeCommand(command, argv, outputListener, null, timeouts.getDefaultSeconds()).getOutput();
+    }
+    
+    /**
+     * Executes a pre-parsed command as a registered run.
+     * 
+     * @param command The command line (used for logging and metrics)
+     * @param argv Program and arguments parsed from the command, or null to parse it now
+     * @param outputListener Receives decoded output chunks while the command runs, may be null
+     * @param run Run opened by the caller (which also closes it), or null to run anonymously
+     * @param timeoutSeconds Time after which the watchdog kills the command
+     * @return The (bounded) command output and the exit code of the process
+     * @throws ExecutionCancelledException if the run was cancelled or stopped by shutdown
+     * @throws CommandExecutionException if execution fails or times out
+     */
+    public CommandResult executeCommand(String command, List<String> argv, Consumer<String> outputListener,
+            RunningExecutions.Run run, int timeoutSeconds) {
         logger.info("Executing command: {}", command);
         
+        // Spans the process lifetime; becomes a trace span when a tracer is configured
+        Observation observation = Observation.createNotStarted("taskmanager.command.execution", observationRegistry)
+            .lowCardinalityKeyValue("command", ExecutionMetrics.commandName(command));
+        metrics.executionStarted();
+        RunningExecutions.Run anonymous = run == null ? runningExecutions.open(null) : null;
         try {
-            // Parse command and arguments
-            String[] commandParts = command.trim().split("\\s+");
-            
-            // Use ProcessBuilder for secure command execution
-            ProcessBuilder processBuilder = new ProcessBuilder(commandParts);
+            // observe() starts the observation, opens its scope, records a thrown error and stops it
+            return observation.observe(() -> runCommand(command,
+                argv != null ? argv : CommandTokenizer.tokenize(command), outputListener,
+                run != null ? run : anonymous, timeoutSeconds));
+        } finally {
+            if (anonymous != null) {
+                runningExecutions.close(anonymous);
+            }
+            metrics.executionFinished();
+        }
+    }
+    
+    private CommandResult runCommand(String command, List<String> argv, Consumer<String> outputListener,
+            RunningExecutions.Run run, int timeoutSeconds) {
+        if (argv.isEmpty()) {
+            throw new CommandExecutionException("Failed to execute command: command is empty", null);
+        }
+        if (run.isStopped()) {
+            throw stopped(run, command, timeoutSeconds);
+        }
+        try {
+            // Use ProcessBuilder for secure command execution (argv is passed as is, never through a shell)
+            ProcessBuilder processBuilder = new ProcessBuilder(argv);
             processBuilder.redirectErrorStream(true); // Merge error and output streams
             
             // Start the process
+            Timer.Sample spawn = metrics.startStage();
             Process process = processBuilder.start();
+            metrics.recordStage(spawn, ExecutionMetrics.STAGE_SPAWN, command);
+            runningExecutions.start(run, process, timeoutSeconds);
             
-            // Read output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
+            // Drain output concurrently so a chatty command cannot stall the timeout
+            Future<OutputCapture> pendingOutput = outputDrainers.submit(
+                () -> readOutput(process, command, outputListener));
             
-            // Wait for completion with timeout
-            boolean completed = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            
-            if (!completed) {
-                process.destroyForcibly();
-                throw new CommandExecutionException(
-                    "Command execution timed out after " + TIMEOUT_SECONDS + " seconds",
-                    null
-                );
+            // The watchdog ends the process on timeout or cancellation; onExit() parks rather than pinning a virtual thread
+            Timer.Sample wait = metrics.startStage();
+            try {
+                process.onExit().get();
+            } catch (InterruptedException e) {
+                runningExecutions.stop(run, RunningExecutions.StopReason.CANCELLED);
+                throw e;
+            }
+            if (run.isStopped()) {
+                pendingOutput.cancel(true);
+                throw stopped(run, command, timeoutSeconds);
             }
+            metrics.recordStage(wait, ExecutionMetrics.STAGE_WAIT, command);
+            
+            OutputCapture capture = awaitOutput(command, process, pendingOutput, run);
+            StringBuilder output = new StringBuilder(capture.toOutputString());
+            metrics.recordOutputBytes(command, capture.getTotalBytes());
             
             // Check exit code
             int exitCode = process.exitValue();
+            metrics.recordExitCode(command, exitCode);
             if (exitCode != 0) {
                 logger.warn("Command exited with code: {}", exitCode);
-                output.append("\nExit code: ").append(exitCode);
+                output.append('\n').append(EXIT_CODE_LINE).append(exitCode);
             }
             
             String result = output.toString().trim();
-            logger.info("Command execution completed. Output length: {} characters", result.length());
-            
-            return result.isEmpty() ? "Command executed successfully (no output)" : result;
+            logger.info("Command execution completed. Output: {} bytes produced, {} characters kept{}",
+                capture.getTotalBytes(), result.length(), capture.isTruncated() ? " (truncated)" : "");
             
+            return new CommandResult(result.isEmpty() ? "Command executed successfully (no output)" : result, exitCode);
+        
         } catch (IOException e) {
             logger.error("IO error during command execution", e);
             throw new CommandExecutionException("Failed to execute command: " + e.getMessage(), e);
@@ -82,6 +258,93 @@ public class CommandExecutorService {
             Thread.currentThread().interrupt();
             logger.error("Command execution interrupted", e);
             throw new CommandExecutionException("Command execution was interrupted", e);
+        } catch (ExecutionException e) {
+            logger.error("Failed to read command output", e.getCause());
+            throw new CommandExecutionException("Failed to read command output: " + e.getCause().getMessage(), e);
+        }
+    }
+    
+    private CommandExecutionException stopped(RunningExecutions.Run run, String command, int timeoutSeconds) {
+        switch (run.getStopReason()) {
+            case TIMEOUT:
+                metrics.recordTimeout(command);
+                return new CommandExecutionException("Command execution timed out after " + timeoutSeconds + " seconds", null);
+            case SHUTDOWN:
+                return new ExecutionCancelledException("Command execution was stopped by shutdown", true);
+            default:
+                return new ExecutionCancelledException("Command execution was cancelled", false);
+        }
+    }
+    
+    /**
+     * Reads the merged stdout/stderr of a process until EOF into a bounded capture.
+     */
+    private OutputCapture readOutput(Process process, String command, Consumer<String> outputListener)
+            throws IOException {
+        Timer.Sample drain = metrics.startStage();
+        OutputCapture capture = new OutputCapture(maxOutputBytes);
+        ChunkDecoder decoder = outputListener != null ? new ChunkDecoder() : null;
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        
+        try (InputStream input = process.getInputStream()) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                capture.write(buffer, 0, read);
+                if (decoder != null) {
+                    String chunk = decoder.decode(buffer, read);
+                    if (!chunk.isEmpty()) {
+                        outputListener.accept(chunk);
+                    }
+                }
+            }
+        }
+        metrics.recordStage(drain, ExecutionMetrics.STAGE_DRAIN, command);
+        return capture;
+    }
+    
+    /**
+     * Collects the drained output once the process has exited. Background
+     * children that inherited the pipe can keep it open, so the wait ends at
+     * the run's deadline; those children are then killed and the pipe closed,
+     * which ends the drain instead of leaving its thread blocked in read().
+     */
+    private OutputCapture awaitOutput(String command, Process process, Future<OutputCapture> pendingOutput,
+            RunningExecutions.Run run) throws InterruptedException, ExecutionException {
+        try {
+            return pendingOutput.get(run.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            metrics.recordTimeout(command);
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            try {
+                process.getInputStream().close();
+            } catch (IOException closeFailure) {
+                logger.warn("Failed to close the output of a timed out command", closeFailure);
+            }
+            pendingOutput.cancel(true);
+            throw new CommandExecutionException("Command output was still open at the timeout, after the command exited", null);
+        }
+    }
+    
+    /**
+     * Incremental UTF-8 decoder for live output; carries incomplete
+     * multi-byte sequences over to the next chunk.
+     */
+    private static final class ChunkDecoder {
+        
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(READ_BUFFER_SIZE + 8);
+        private final CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE + 8);
+        
+        String decode(byte[] data, int length) {
+            bytes.put(data, 0, length).flip();
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+            chars.flip();
+            String chunk = chars.toString();
+            chars.clear();
+            return chunk;
         }
     }
 }
@@ -0,0 +1,25 @@
+package com.example.taskmanager.service;
+
+/**
+ * Outcome of a command that ran to completion: its (bounded) output and the
+ * exit code reported by the process. The exit code is kept apart from the
+ * output so it survives truncation and cannot be forged by what the command prints.
+ */
+public class CommandResult {
+    
+    private final String output;
+    private final int exitCode;
+    
+    public CommandResult(String output, int exitCode) {
+        this.output = output;
+        this.exitCode = exitCode;
+    }
+    
+    public String getOutput() {
+        return output;
+    }
+    
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.taskmanager.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a command line into its argv without regular expressions.
+ * Same result as command.trim().split("\\s+"): surrounding chars up to ' '
+ * are dropped and arguments are separated by runs of regex whitespace
+ * (space, \t, \n, \u000B, \f, \r).
+ */
+public final class CommandTokenizer {
+    
+    private CommandTokenizer() {
+    }
+    
+    /**
+     * @param command The command line
+     * @return Program and arguments; empty for a blank command
+     */
+    public static List<String> tokenize(String command) {
+        int start = 0;
+        int end = command.length();
+        while (start < end && command.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && command.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return Collections.emptyList();
+        }
+        
+        List<String> argv = new ArrayList<>(4);
+        int tokenStart = start;
+        for (int i = start; i < end; i++) {
+            if (isWhitespace(command.charAt(i))) {
+                if (tokenStart < i) {
+                    argv.add(command.substring(tokenStart, i));
+                }
+                tokenStart = i + 1;
+            }
+        }
+        argv.add(command.substring(tokenStart, end));
+        return argv;
+    }
+    
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -1,33 +1,177 @@
 package com.example.taskmanager.service;
 
 import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service for validating shell commands to prevent command injection attacks.
  * Implements multiple security checks based on OWASP best practices.
+ * All checks are done in a single pass over the command using precomputed
+ * character tables; the rules are the same as the original regex-based checks.
+ * Verdicts are cached per command and allowlist version, so stored commands
+ * can be re-checked at execution time with a lock-free map lookup; replacing
+ * the allowlist bumps the version and old verdicts are recomputed lazily.
+ * Once the cache is over its bound, one thread sweeps it, dropping verdicts
+ * of old allowlist versions first and then arbitrary ones.
  */
 @Service
 public class CommandValidatorService {
     
     // Dangerous shell metacharacters that could be used for injection
+    // (checked in this order; "\\n", "\\r", "\\t" are literal backslash sequences)
     private static final List<String> DANGEROUS_CHARS = Arrays.asList(
-        ";", "&&", "||", "|", "`", "$", "(", ")", 
+        ";", "&&", "||", "|", "`", "$", "(", ")",
         ">", "<", "&", "\\n", "\\r", "\\t"
     );
     
-    // Whitelist of safe commands (can be extended)
-    private static final List<String> ALLOWED_COMMANDS = Arrays.asList(
-        "echo", "ls", "pwd", "date", "whoami", "hostname", 
+    private static final Logger logger = LoggerFactory.getLogger(CommandValidatorService.class);
+    
+    // Default whitelist of safe commands (overridable with taskmanager.validator.allowed-commands)
+    private static final List<String> DEFAULT_ALLOWED_COMMANDS = Arrays.asList(
+        "echo", "ls", "pwd", "date", "whoami", "hostname",
         "cat", "grep", "wc", "head", "tail", "df", "du", "ping"
     );
     
-    // Pattern for safe arguments (alphanumeric, spaces, dots, hyphens, underscores, slashes)
-    private static final Pattern SAFE_ARG_PATTERN = Pattern.compile("^[a-zA-Z0-9\\s./_-]+$");
+    // Indexes into DANGEROUS_CHARS
+    private static final int SEMICOLON = 0;
+    private static final int DOUBLE_AMPERSAND = 1;
+    private static final int DOUBLE_PIPE = 2;
+    private static final int PIPE = 3;
+    private static final int BACKTICK = 4;
+    private static final int DOLLAR = 5;
+    private static final int OPEN_PAREN = 6;
+    private static final int CLOSE_PAREN = 7;
+    private static final int GREATER = 8;
+    private static final int LESS = 9;
+    private static final int AMPERSAND = 10;
+    private static final int ESCAPED_N = 11;
+    private static final int ESCAPED_R = 12;
+    private static final int ESCAPED_T = 13;
+    
+    private static final byte CLASS_OTHER = 0;
+    // Regex \s: space, \t, \n, \u000B, \f, \r
+    private static final byte CLASS_WHITESPACE = 1;
+    // Safe argument characters (alphanumeric, dots, hyphens, underscores, slashes)
+    private static final byte CLASS_SAFE = 2;
+    // Single-character dangerous metacharacters
+    private static final byte CLASS_DANGEROUS = 3;
+    // '&', '|' and '\' may start a two-character sequence
+    private static final byte CLASS_SEQUENCE = 4;
+    
+    // Rule names used to tag rejection metrics
+    private static final String RULE_EMPTY = "empty";
+    private static final String RULE_DANGEROUS_CHAR = "dangerous_char";
+    private static final String RULE_NOT_WHITELISTED = "not_whitelisted";
+    private static final String RULE_UNSAFE_ARGUMENTS = "unsafe_arguments";
+    
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final int[] DANGEROUS_INDEX = new int[128];
+    
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASS[c] = CLASS_SAFE;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHAR_CLASS[c] = CLASS_SAFE;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASS[c] = CLASS_SAFE;
+        }
+        for (char c : new char[] {'.', '/', '_', '-'}) {
+            CHAR_CLASS[c] = CLASS_SAFE;
+        }
+        for (char c : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+            CHAR_CLASS[c] = CLASS_WHITESPACE;
+        }
+        
+        Arrays.fill(DANGEROUS_INDEX, -1);
+        char[] singles = {';', '`', '$', '(', ')', '>', '<'};
+        int[] indexes = {SEMICOLON, BACKTICK, DOLLAR, OPEN_PAREN, CLOSE_PAREN, GREATER, LESS};
+        for (int i = 0; i < singles.length; i++) {
+            CHAR_CLASS[singles[i]] = CLASS_DANGEROUS;
+            DANGEROUS_INDEX[singles[i]] = indexes[i];
+        }
+        CHAR_CLASS['&'] = CLASS_SEQUENCE;
+        CHAR_CLASS['|'] = CLASS_SEQUENCE;
+        CHAR_CLASS['\\'] = CLASS_SEQUENCE;
+    }
+    
+    // Optional so the validator can also be used without a Spring context
+    @Autowired(required = false)
+    private ExecutionMetrics metrics;
+    
+    @Value("${taskmanager.validator.verdict-cache.max-entries:10000}")
+    private int verdictCacheSize = 10000;
+    
+    private volatile Allowlist allowlist = new Allowlist(1, DEFAULT_ALLOWED_COMMANDS);
+    
+    // Last verdict per command; stale once the allowlist version moves on
+    private final ConcurrentHashMap<String, Verdict> verdicts = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    
+    /**
+     * Replaces the allowlist, at startup from taskmanager.validator.allowed-commands
+     * and at runtime through the allowlist actuator endpoint. Cached verdicts of
+     * the previous version are ignored from now on, so every command is
+     * re-checked on its next use.
+     * @param commands Base commands that may be executed
+     */
+    @Value("${taskmanager.validator.allowed-commands:echo,ls,pwd,date,whoami,hostname,cat,grep,wc,head,tail,df,du,ping}")
+    public synchronized void setAllowedCommands(List<String> commands) {
+        Allowlist current = allowlist;
+        allowlist = new Allowlist(current.version + 1, commands);
+        logger.info("Command allowlist version {}: {}", current.version + 1, String.join(", ", allowlist.commands));
+    }
+    
+    /**
+     * @return Base commands of the current allowlist, normalized to lower case
+     */
+    public List<String> getAllowedCommands() {
+        return List.copyOf(allowlist.commands);
+    }
+    
+    /**
+     * @return Version of the current allowlist, incremented on every change
+     */
+    public long getAllowlistVersion() {
+        return allowlist.version;
+    }
+    
+    /**
+     * Re-checks a stored command, normally with a single cache lookup.
+     * @param command The command to check
+     * @throws InvalidCommandException if the command is unsafe under the current allowlist
+     */
+    public void checkCommand(String command) {
+        if (command == null) {
+            throw reject(RULE_EMPTY, "Command cannot be empty");
+        }
+        
+        Allowlist current = allowlist;
+        Verdict verdict = verdicts.get(command);
+        if (verdict == null || verdict.allowlistVersion != current.version) {
+            verdict = computeVerdict(command, current);
+            cacheVerdict(command, verdict);
+        }
+        
+        if (verdict.rule != null) {
+            throw reject(verdict.rule, verdict.message);
+        }
+    }
     
     /**
      * Validates a command for security concerns.
@@ -35,38 +179,230 @@ public class CommandValidatorService {
      * @throws InvalidCommandException if the command is unsafe
      */
     public void validateCommand(String command) {
-    if (command == null || command.trim().isEmpty()) {
-        throw new InvalidCommandException("Command cannot be empty");
+        Allowlist current = allowlist;
+        Verdict verdict = computeVerdict(command, current);
+        if (command != null) {
+            cacheVerdict(command, verdict);
+        }
+        if (verdict.rule != null) {
+            throw reject(verdict.rule, verdict.message);
+        }
     }
     
-    // Check for dangerous characters
-    for (String dangerousChar : DANGEROUS_CHARS) {
-        if (command.contains(dangerousChar)) {
-            throw new InvalidCommandException(
-                "Command contains dangerous character: " + dangerousChar
+    private void cacheVerdict(String command, Verdict verdict) {
+        verdicts.put(command, verdict);
+        if (verdicts.size() <= verdictCacheSize || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long currentVersion = allowlist.version;
+            verdicts.values().removeIf(cached -> cached.allowlistVersion != currentVersion);
+            Iterator<String> commands = verdicts.keySet().iterator();
+            while (verdicts.size() > verdictCacheSize && commands.hasNext()) {
+                commands.next();
+                commands.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+    
+    private static Verdict computeVerdict(String command, Allowlist allowlist) {
+        try {
+            validate(command, allowlist);
+            return new Verdict(allowlist.version, null, null);
+        } catch (Rejection e) {
+            return new Verdict(allowlist.version, e.rule, e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs all checks against the given allowlist.
+     * @throws Rejection naming the first rule the command breaks
+     */
+    private static void validate(String command, Allowlist allowlist) {
+        if (command == null) {
+            throw new Rejection(RULE_EMPTY, "Command cannot be empty");
+        }
+        
+        int length = command.length();
+        
+        // Bit i set when DANGEROUS_CHARS[i] occurs anywhere in the command
+        int dangerousMask = 0;
+        
+        // Bounds of the trimmed command (trim() strips chars <= ' ')
+        int firstVisible = -1;
+        int lastVisible = -1;
+        
+        // First regex-whitespace char after the base command starts, and first visible char after it
+        int baseCommandEnd = -1;
+        int firstArgumentVisible = -1;
+        
+        // Last unsafe visible char, and last unsafe control char seen before a visible char
+        int lastUnsafeVisible = -1;
+        int pendingUnsafeControl = -1;
+        int unsafeControlBeforeVisible = -1;
+        
+        for (int i = 0; i < length; i++) {
+            char c = command.charAt(i);
+            byte charClass = c < 128 ? CHAR_CLASS[c] : CLASS_OTHER;
+            
+            if (c > ' ') {
+                if (firstVisible < 0) {
+                    firstVisible = i;
+                }
+                lastVisible = i;
+                if (baseCommandEnd >= 0 && firstArgumentVisible < 0) {
+                    firstArgumentVisible = i;
+                }
+                unsafeControlBeforeVisible = pendingUnsafeControl;
+                if (charClass != CLASS_SAFE) {
+                    lastUnsafeVisible = i;
+                }
+            } else if (charClass == CLASS_WHITESPACE) {
+                if (firstVisible >= 0 && baseCommandEnd < 0) {
+                    baseCommandEnd = i;
+                }
+            } else {
+                pendingUnsafeControl = i;
+            }
+            
+            if (charClass == CLASS_DANGEROUS) {
+                dangerousMask |= 1 << DANGEROUS_INDEX[c];
+            } else if (charClass == CLASS_SEQUENCE) {
+                char next = i + 1 < length ? command.charAt(i + 1) : 0;
+                if (c == '&') {
+                    dangerousMask |= 1 << AMPERSAND;
+                    if (next == '&') {
+                        dangerousMask |= 1 << DOUBLE_AMPERSAND;
+                    }
+                } else if (c == '|') {
+                    dangerousMask |= 1 << PIPE;
+                    if (next == '|') {
+                        dangerousMask |= 1 << DOUBLE_PIPE;
+                    }
+                } else if (next == 'n') {
+                    dangerousMask |= 1 << ESCAPED_N;
+                } else if (next == 'r') {
+                    dangerousMask |= 1 << ESCAPED_R;
+                } else if (next == 't') {
+                    dangerousMask |= 1 << ESCAPED_T;
+                }
+            }
+        }
+        
+        if (firstVisible < 0) {
+            throw new Rejection(RULE_EMPTY, "Command cannot be empty");
+        }
+        
+        // Check for dangerous characters (first match in list order)
+        if (dangerousMask != 0) {
+            throw new Rejection(RULE_DANGEROUS_CHAR,
+                "Command contains dangerous character: " + DANGEROUS_CHARS.get(Integer.numberOfTrailingZeros(dangerousMask))
+            );
+        }
+        
+        // Base command: first token of the trimmed command
+        if (baseCommandEnd < 0 || baseCommandEnd > lastVisible) {
+            baseCommandEnd = lastVisible + 1;
+        }
+        String baseCommand = command.substring(firstVisible, baseCommandEnd);
+        
+        // Check the base command against the whitelist
+        if (!allowlist.commands.contains(baseCommand.toLowerCase(Locale.ROOT))) {
+            throw new Rejection(RULE_NOT_WHITELISTED,
+                "Command '" + baseCommand + "' is not in the allowed whitelist. " +
+                "Allowed commands: " + String.join(", ", allowlist.commands)
+            );
+        }
+        
+        // Arguments: command.substring(baseCommand.length()).trim(), checked for unsafe chars
+        if (hasUnsafeArguments(baseCommand.length(), firstVisible, baseCommandEnd, firstArgumentVisible,
+                lastVisible, lastUnsafeVisible, unsafeControlBeforeVisible)) {
+            throw new Rejection(RULE_UNSAFE_ARGUMENTS,
+                "Command arguments contain unsafe characters. " +
+                "Only alphanumeric, spaces, dots, hyphens, underscores, and slashes are allowed."
             );
         }
     }
     
-    // --- FIX 1: Get the first word as a String ---
-    String baseCommand = command.trim().split("\\s+")[0];
+    private InvalidCommandException reject(String rule, String message) {
+        if (metrics != null) {
+            metrics.recordValidatorRejection(rule);
+        }
+        return new InvalidCommandException(message);
+    }
     
-    // --- FIX 2: Check the String against the whitelist ---
-    if (!ALLOWED_COMMANDS.contains(baseCommand.toLowerCase())) {
-        throw new InvalidCommandException(
-            "Command '" + baseCommand + "' is not in the allowed whitelist. " +
-            "Allowed commands: " + String.join(", ", ALLOWED_COMMANDS)
-        );
+    /**
+     * Decides whether the trimmed region starting at argsOffset contains an unsafe char,
+     * using the positions recorded during the scan. The base command is whitelisted, so
+     * it consists of visible safe characters only.
+     */
+    private static boolean hasUnsafeArguments(int argsOffset, int firstVisible, int baseCommandEnd,
+            int firstArgumentVisible, int lastVisible, int lastUnsafeVisible, int unsafeControlBeforeVisible) {
+        // Any unsafe visible char at or after the offset lies inside the trimmed region
+        if (lastUnsafeVisible >= argsOffset) {
+            return true;
+        }
+        
+        // First visible char at or after the offset (start of the trimmed region)
+        int argsStart;
+        if (argsOffset <= firstVisible) {
+            argsStart = firstVisible;
+        } else if (argsOffset < baseCommandEnd) {
+            argsStart = argsOffset;
+        } else if (firstArgumentVisible >= 0) {
+            argsStart = firstArgumentVisible;
+        } else {
+            return false;
+        }
+        
+        // Control chars (<= ' ' but not whitespace) count only strictly inside the region
+        return argsStart < lastVisible && unsafeControlBeforeVisible > argsStart;
     }
     
-    // --- FIX 3: Use the String's length to get arguments ---
-    String args = command.substring(baseCommand.length()).trim();
-    if (!args.isEmpty() && !SAFE_ARG_PATTERN.matcher(args).matches()) {
-        throw new InvalidCommandException(
-            "Command arguments contain unsafe characters. " +
-            "Only alphanumeric, spaces, dots, hyphens, underscores, and slashes are allowed."
-        );
+    /**
+     * Immutable allowlist snapshot with its version.
+     */
+    private static final class Allowlist {
+        
+        private final long version;
+        private final Set<String> commands;
+        
+        private Allowlist(long version, List<String> commands) {
+            this.version = version;
+            Set<String> normalized = new LinkedHashSet<>();
+            commands.forEach(command -> normalized.add(command.trim().toLowerCase(Locale.ROOT)));
+            this.commands = normalized;
+        }
+    }
+    
+    /**
+     * Outcome of validating one command under one allowlist version; rule is null when accepted.
+     */
+    private static final class Verdict {
+        
+        private final long allowlistVersion;
+        private final String rule;
+        private final String message;
+        
+        private Verdict(long allowlistVersion, String rule, String message) {
+            this.allowlistVersion = allowlistVersion;
+            this.rule = rule;
+            this.message = message;
+        }
+    }
+    
+    /**
+     * Internal signal for a broken rule; turned into InvalidCommandException by the callers.
+     */
+    private static final class Rejection extends RuntimeException {
+        
+        private final String rule;
+        
+        private Rejection(String rule, String message) {
+            super(message, null, false, false);
+            this.rule = rule;
+        }
     }
-}
-
 }
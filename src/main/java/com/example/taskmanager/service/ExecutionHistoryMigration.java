@@ -0,0 +1,162 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.TaskExecution;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-off startup migration for task documents that still carry an embedded
+ * taskExecutions array. Moves each entry into the task_executions collection
+ * and removes the array from the task document. A no-op once migrated.
+ * Safe to run on several nodes at once and to resume after a crash: a task
+ * is claimed by atomically renaming its array to a staging field, entries
+ * get IDs derived from the task and their position so a repeated insert only
+ * hits duplicate keys, and the counters are bumped by the same update that
+ * removes the staging field, so they move exactly once.
+ */
+@Component
+public class ExecutionHistoryMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionHistoryMigration.class);
+    private static final String TASKS_COLLECTION = "tasks";
+    private static final String EMBEDDED_FIELD = "taskExecutions";
+    private static final String STAGING_FIELD = "taskExecutionsMigrating";
+    private static final int DUPLICATE_KEY = 11000;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where(EMBEDDED_FIELD).exists(true),
+            Criteria.where(STAGING_FIELD).exists(true)));
+        query.fields().include("_id");
+        
+        int migratedTasks = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, TASKS_COLLECTION)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (migrate(document.get("_id"))) {
+                    migratedTasks++;
+                }
+            }
+        }
+        
+        if (migratedTasks > 0) {
+            logger.info("Moved embedded execution history of {} tasks to task_executions", migratedTasks);
+        }
+    }
+    
+    /**
+     * @return false if another node finished the task first
+     */
+    private boolean migrate(Object rawId) {
+        String taskId = rawId instanceof ObjectId ? ((ObjectId) rawId).toHexString() : String.valueOf(rawId);
+        
+        // Claim the array, or pick up one staged by a run that did not finish
+        Query claim = new Query(Criteria.where("_id").is(rawId).and(EMBEDDED_FIELD).exists(true));
+        claim.fields().include(STAGING_FIELD);
+        Document staged = mongoTemplate.findAndModify(claim, new Update().rename(EMBEDDED_FIELD, STAGING_FIELD),
+            FindAndModifyOptions.options().returnNew(true), Document.class, TASKS_COLLECTION);
+        if (staged == null) {
+            Query resume = new Query(Criteria.where("_id").is(rawId).and(STAGING_FIELD).exists(true));
+            resume.fields().include(STAGING_FIELD);
+            staged = mongoTemplate.findOne(resume, Document.class, TASKS_COLLECTION);
+            if (staged == null) {
+                return false;
+            }
+        }
+        
+        List<Document> embedded = staged.getList(STAGING_FIELD, Document.class, new ArrayList<>());
+        List<TaskExecution> executions = new ArrayList<>(embedded.size());
+        for (int i = 0; i < embedded.size(); i++) {
+            Document entry = embedded.get(i);
+            TaskExecution execution = new TaskExecution();
+            execution.setId(executionId(taskId, i, entry.get("startTime", Date.class)));
+            execution.setTaskId(taskId);
+            execution.setStartTime(entry.get("startTime", Date.class));
+            execution.setEndTime(entry.get("endTime", Date.class));
+            execution.setOutput(entry.getString("output"));
+            execution.setStatus(ExecutionStatus.COMPLETED);
+            executions.add(execution);
+        }
+        insertMissing(executions);
+        
+        Update update = new Update().unset(STAGING_FIELD);
+        if (!executions.isEmpty()) {
+            update.inc("executionCount", executions.size());
+            Date lastEnd = executions.get(executions.size() - 1).getEndTime();
+            if (lastEnd != null) {
+                update.max("lastExecutedAt", lastEnd);
+            }
+        }
+        
+        // Only the node that removes the staging field counts the executions
+        return mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(rawId).and(STAGING_FIELD).exists(true)),
+            update,
+            TASKS_COLLECTION
+        ).getModifiedCount() == 1;
+    }
+    
+    /**
+     * Inserts the executions, skipping those a previous or concurrent run already inserted.
+     */
+    private void insertMissing(List<TaskExecution> executions) {
+        if (executions.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TaskExecution.class);
+        bulk.insert(executions);
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stable ObjectId for the index-th embedded execution of a task: the
+     * timestamp part is the start time, the rest a hash of task and position.
+     */
+    static String executionId(String taskId, int index, Date startTime) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256")
+                .digest((taskId + "/" + index).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        int seconds = startTime != null ? (int) (startTime.getTime() / 1000) : 0;
+        ByteBuffer id = ByteBuffer.allocate(12).putInt(seconds).put(hash, 0, 8);
+        return new ObjectId(id.array()).toHexString();
+    }
+}
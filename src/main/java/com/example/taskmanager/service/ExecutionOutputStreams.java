@@ -0,0 +1,220 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.TaskExecution;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service for streaming execution output to clients while the command runs.
+ * Subscribers receive "output" events with each chunk as it is drained and a
+ * final "status" event. Publishing only queues the event: each subscriber has
+ * a bounded queue (taskmanager.execution.stream.queue-capacity) that a sender
+ * thread writes out, so a slow client never stalls the output drain. A
+ * subscriber whose queue fills up is dropped and its stream ends early.
+ */
+@Service
+public class ExecutionOutputStreams {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionOutputStreams.class);
+    private static final long STREAM_TIMEOUT_MS = 5 * 60 * 1000L;
+    
+    @Value("${taskmanager.execution.stream.queue-capacity:256}")
+    private int queueCapacity;
+    
+    // Subscribers of executions that are queued or running on this node
+    private final ConcurrentHashMap<String, List<Subscriber>> liveStreams = new ConcurrentHashMap<>();
+    
+    private ExecutorService senders;
+    
+    @PostConstruct
+    void startSenders() {
+        // At most one thread per subscriber with pending events
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopSenders() {
+        senders.shutdownNow();
+    }
+    
+    /**
+     * Marks an execution as live so clients can subscribe before it starts.
+     */
+    public void open(String executionId) {
+        liveStreams.put(executionId, new CopyOnWriteArrayList<>());
+    }
+    
+    /**
+     * Queues an output chunk for all subscribers of an execution; never blocks.
+     */
+    public void publish(String executionId, String chunk) {
+        List<Subscriber> subscribers = liveStreams.get(executionId);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.offer(SseEmitter.event().name("output").data(chunk))) {
+                logger.debug("Dropping slow output subscriber of execution {}", executionId);
+                subscribers.remove(subscriber);
+                subscriber.dropped = true;
+            }
+            subscriber.schedule();
+        }
+    }
+    
+    /**
+     * Ends the stream of an execution; subscribers get its final status after their queued output.
+     */
+    public void close(String executionId, ExecutionStatus status) {
+        List<Subscriber> subscribers = liveStreams.remove(executionId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.offer(SseEmitter.event().name("status").data(status.name()))) {
+                subscriber.dropped = true;
+            }
+            subscriber.finished = true;
+            subscriber.schedule();
+        }
+    }
+    
+    /**
+     * Opens a stream for an execution. Live executions stream as they run;
+     * finished ones replay their stored output and status. The subscription
+     * is made before the snapshot is loaded, so an execution that ends in
+     * between is replayed from its final state rather than missed.
+     *
+     * @param executionId The execution to stream
+     * @param snapshot Loads the stored execution (and checks access to it)
+     */
+    public SseEmitter stream(String executionId, Supplier<TaskExecution> snapshot) {
+        Subscriber subscriber = new Subscriber(executionId);
+        
+        boolean[] subscribed = {false};
+        liveStreams.computeIfPresent(executionId, (id, subscribers) -> {
+            subscribers.add(subscriber);
+            subscribed[0] = true;
+            return subscribers;
+        });
+        
+        TaskExecution execution;
+        try {
+            execution = snapshot.get();
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        
+        SseEmitter emitter = subscriber.emitter;
+        if (subscribed[0]) {
+            Runnable unsubscribe = () -> {
+                subscriber.dropped = true;
+                unsubscribe(subscriber);
+            };
+            emitter.onCompletion(unsubscribe);
+            emitter.onTimeout(unsubscribe);
+            emitter.onError(e -> unsubscribe.run());
+            return emitter;
+        }
+        
+        try {
+            if (execution.getOutput() != null) {
+                emitter.send(SseEmitter.event().name("output").data(execution.getOutput()));
+            }
+            if (execution.getStatus() != null) {
+                emitter.send(SseEmitter.event().name("status").data(execution.getStatus().name()));
+            }
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+    
+    private void unsubscribe(Subscriber subscriber) {
+        List<Subscriber> subscribers = liveStreams.get(subscriber.executionId);
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+    
+    /**
+     * One client of a live stream. Events are written by at most one sender
+     * thread at a time; the drain thread only queues them and sets flags.
+     */
+    private final class Subscriber {
+        
+        final String executionId;
+        final SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        final BlockingQueue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean sending = new AtomicBoolean();
+        // No events follow the queued ones
+        volatile boolean finished;
+        // Gone or too slow; queued events are discarded
+        volatile boolean dropped;
+        // Only touched by the thread holding the sending flag
+        boolean completed;
+        
+        Subscriber(String executionId) {
+            this.executionId = executionId;
+        }
+        
+        void schedule() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                sending.set(false);
+            }
+        }
+        
+        private void send() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!dropped && (event = pending.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("Dropping output subscriber of execution {}: {}", executionId, e.getMessage());
+                        dropped = true;
+                        unsubscribe(this);
+                    }
+                }
+                if (!completed && (dropped || (finished && pending.isEmpty()))) {
+                    completed = true;
+                    pending.clear();
+                    emitter.complete();
+                }
+                sending.set(false);
+                // Events or flags set while the flag was still held were not scheduled
+            } while (!completed && (dropped || finished || !pending.isEmpty()) && sending.compareAndSet(false, true));
+        }
+    }
+}
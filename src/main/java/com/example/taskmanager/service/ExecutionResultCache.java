@@ -0,0 +1,135 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Service caching the last execution of tasks that opt in with resultCacheSeconds.
+ * Executions within the window are served from memory without forking a process,
+ * and concurrent executions of the same task share a single process launch.
+ * The cache is bounded; least recently used entries are evicted first.
+ */
+@Service
+public class ExecutionResultCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionResultCache.class);
+    
+    private final Map<String, CachedResult> results;
+    
+    // Executions currently running per task, joined by concurrent callers
+    private final ConcurrentHashMap<String, CompletableFuture<TaskExecution>> inFlight = new ConcurrentHashMap<>();
+    
+    public ExecutionResultCache(@Value("${taskmanager.result-cache.max-entries:10000}") int maxEntries) {
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    /**
+     * Returns a fresh cached execution of the task, or runs it.
+     * 
+     * @param task The task to execute
+     * @param execution Runs the command and records the execution
+     * @return The cached or new execution
+     */
+    public TaskExecution getOrExecute(Task task, Supplier<TaskExecution> execution) {
+        Integer maxAgeSeconds = task.getResultCacheSeconds();
+        if (maxAgeSeconds == null || maxAgeSeconds <= 0) {
+            return execution.get();
+        }
+        
+        TaskExecution cached = lookup(task, maxAgeSeconds);
+        if (cached != null) {
+            return cached;
+        }
+        
+        CompletableFuture<TaskExecution> flight = new CompletableFuture<>();
+        CompletableFuture<TaskExecution> running = inFlight.putIfAbsent(task.getId(), flight);
+        if (running != null) {
+            logger.info("Joining in-flight execution of task: {}", task.getId());
+            return join(running);
+        }
+        
+        try {
+            // Another leader may have finished between the lookup and taking the flight
+            TaskExecution result = lookup(task, maxAgeSeconds);
+            if (result == null) {
+                result = execution.get();
+                store(task, result);
+            }
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(task.getId(), flight);
+        }
+    }
+    
+    /**
+     * Drops the cached execution of a task (on redefinition or deletion).
+     */
+    public void invalidate(String taskId) {
+        synchronized (results) {
+            results.remove(taskId);
+        }
+    }
+    
+    private TaskExecution lookup(Task task, int maxAgeSeconds) {
+        CachedResult cached;
+        synchronized (results) {
+            cached = results.get(task.getId());
+        }
+        if (cached == null || !cached.command.equals(task.getCommand())
+                || System.currentTimeMillis() - cached.cachedAt > maxAgeSeconds * 1000L) {
+            return null;
+        }
+        logger.info("Serving cached execution of task: {}", task.getId());
+        return cached.execution;
+    }
+    
+    private void store(Task task, TaskExecution execution) {
+        synchronized (results) {
+            results.put(task.getId(), new CachedResult(task.getCommand(), execution, System.currentTimeMillis()));
+        }
+    }
+    
+    private static TaskExecution join(CompletableFuture<TaskExecution> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static final class CachedResult {
+        
+        private final String command;
+        private final TaskExecution execution;
+        private final long cachedAt;
+        
+        private CachedResult(String command, TaskExecution execution, long cachedAt) {
+            this.command = command;
+            this.execution = execution;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
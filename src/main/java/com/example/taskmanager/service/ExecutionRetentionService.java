@@ -0,0 +1,294 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.ExecutionOutputStorage;
+import com.example.taskmanager.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Background compaction of the task_executions collection.
+ * Per task, finished runs beyond the newest max-runs or older than max-age
+ * are deleted, and successful runs (exit code 0) other than the latest one
+ * keep only the first summary-chars of their output; their outputBytes then
+ * gives the size of the summary, as it always gives the stored size. The
+ * latest run and failures, including non-zero exits, keep their full output;
+ * queued and running executions are never touched.
+ * Work is done in batches of batch-size documents with a pause between
+ * batches, so a pass never issues large writes against the primary.
+ */
+@Service
+public class ExecutionRetentionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionRetentionService.class);
+    private static final List<ExecutionStatus> FINISHED = List.of(
+        ExecutionStatus.COMPLETED, ExecutionStatus.FAILED, ExecutionStatus.CANCELLED);
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ExecutionOutputStorage outputStorage;
+    
+    @Value("${taskmanager.retention.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${taskmanager.retention.interval-minutes:60}")
+    private long intervalMinutes;
+    
+    // 0 disables the limit
+    @Value("${taskmanager.retention.max-runs:0}")
+    private int maxRuns;
+    
+    // 0 disables the limit
+    @Value("${taskmanager.retention.max-age-days:0}")
+    private int maxAgeDays;
+    
+    // Negative keeps full output for every run
+    @Value("${taskmanager.retention.summary-chars:-1}")
+    private int summaryChars;
+    
+    @Value("${taskmanager.retention.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${taskmanager.retention.batch-pause-ms:100}")
+    private long batchPauseMillis;
+    
+    private ScheduledExecutorService compactor;
+    
+    @PostConstruct
+    void startCompactor() {
+        if (!enabled) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "execution-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::runSafely, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("Execution retention enabled (max runs: {}, max age: {} days, summary chars: {}, every {} min)",
+            maxRuns, maxAgeDays, summaryChars, intervalMinutes);
+    }
+    
+    @PreDestroy
+    void stopCompactor() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+    }
+    
+    private void runSafely() {
+        try {
+            compact();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Execution retention pass failed", e);
+        }
+    }
+    
+    /**
+     * Runs one compaction pass over all tasks.
+     * @return Number of executions deleted or summarized
+     */
+    public long compact() throws InterruptedException {
+        long changed = 0;
+        String after = null;
+        List<Task> tasks;
+        do {
+            // Only IDs are needed, walked with the keyset cursor
+            tasks = taskRepository.findPage(after, batchSize, List.of("id"));
+            for (Task task : tasks) {
+                changed += compactTask(task.getId());
+            }
+            after = tasks.isEmpty() ? null : tasks.get(tasks.size() - 1).getId();
+        } while (tasks.size() == batchSize);
+        
+        if (changed > 0) {
+            logger.info("Execution retention pass deleted or summarized {} executions", changed);
+        }
+        return changed;
+    }
+    
+    private long compactTask(String taskId) throws InterruptedException {
+        // Latest finished run: never deleted, always keeps its output
+        TaskExecution latest = mongoTemplate.findOne(finishedRuns(taskId, null, 0, 1), TaskExecution.class);
+        if (latest == null) {
+            return 0;
+        }
+        
+        long changed = 0;
+        if (maxRuns > 0) {
+            TaskExecution oldestKept = mongoTemplate.findOne(finishedRuns(taskId, null, maxRuns - 1, 1), TaskExecution.class);
+            if (oldestKept != null) {
+                changed += deleteBefore(taskId, oldestKept.getStartTime(), latest.getId());
+            }
+        }
+        if (maxAgeDays > 0) {
+            Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays));
+            changed += deleteBefore(taskId, cutoff, latest.getId());
+        }
+        if (summaryChars >= 0) {
+            changed += summarize(taskId, latest.getId());
+        }
+        return changed;
+    }
+    
+    /**
+     * Finished runs of a task, newest first, projected to the fields used for decisions.
+     */
+    private static Query finishedRuns(String taskId, Criteria extra, int skip, int limit) {
+        Query query = new Query(Criteria.where("taskId").is(taskId).and("status").in(FINISHED));
+        if (extra != null) {
+            query.addCriteria(extra);
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "startTime")).skip(skip).limit(limit);
+        query.fields().include("_id").include("startTime");
+        return query;
+    }
+    
+    private long deleteBefore(String taskId, Date startTime, String latestId) throws InterruptedException {
+        Criteria older = Criteria.where("startTime").lt(startTime).and("_id").ne(latestId);
+        long deleted = 0;
+        List<String> ids;
+        do {
+            ids = batchIds(finishedRuns(taskId, older, 0, batchSize));
+            if (!ids.isEmpty()) {
+                deleted += mongoTemplate.remove(
+                    new Query(Criteria.where("_id").in(ids)), TaskExecution.class).getDeletedCount();
+                outputStorage.deleteSpills(ids);
+                pause();
+            }
+        } while (ids.size() == batchSize);
+        return deleted;
+    }
+    
+    private long summarize(String taskId, String latestId) throws InterruptedException {
+        return summarizePlain(taskId, latestId) + summarizeStored(taskId, latestId);
+    }
+    
+    private long summarizePlain(String taskId, String latestId) throws InterruptedException {
+        Criteria uncompacted = Criteria.where("_id").ne(latestId).and("compacted").ne(true)
+            .and("output").type(JsonSchemaObject.Type.STRING);
+        // Cut server-side, so the output is never shipped to the application; each
+        // set is its own stage, so outputBytes is measured on the cut output
+        AggregationUpdate summary = AggregationUpdate.update()
+            .set("output").toValue(StringOperators.valueOf("output").substringCP(0, summaryChars))
+            .set("compacted").toValue(true)
+            .set("outputBytes").toValue(ConvertOperators.ToLong.toLong(StringOperators.valueOf("output").length()));
+        
+        long summarized = 0;
+        List<String> ids;
+        do {
+            Query batch = new Query(succeededRuns(taskId))
+                .addCriteria(uncompacted)
+                .limit(batchSize);
+            batch.fields().include("_id");
+            ids = batchIds(batch);
+            if (!ids.isEmpty()) {
+                summarized += mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids)), summary, TaskExecution.class).getModifiedCount();
+                pause();
+            }
+        } while (ids.size() == batchSize);
+        return summarized;
+    }
+    
+    /**
+     * Outputs stored compressed or in GridFS cannot be cut server-side: they are
+     * loaded one at a time, so at most one full output is held in memory, and
+     * replaced by a plain-text summary.
+     */
+    private long summarizeStored(String taskId, String latestId) throws InterruptedException {
+        long summarized = 0;
+        List<String> ids;
+        do {
+            Query query = new Query(succeededRuns(taskId))
+                .addCriteria(Criteria.where("_id").ne(latestId).and("compacted").ne(true)
+                    .orOperator(Criteria.where("outputDeflated").exists(true), Criteria.where("outputFileId").exists(true)))
+                .limit(batchSize);
+            query.fields().include("_id");
+            ids = batchIds(query);
+            for (String id : ids) {
+                TaskExecution execution = mongoTemplate.findById(id, TaskExecution.class);
+                if (execution == null) {
+                    continue;
+                }
+                String output = summaryOf(execution.getOutput());
+                Update summary = new Update()
+                    .set("output", output)
+                    .set("outputBytes", output == null ? null : (long) output.getBytes(StandardCharsets.UTF_8).length)
+                    .set("compacted", true)
+                    .unset("outputDeflated")
+                    .unset("outputFileId");
+                summarized += mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(id)), summary, TaskExecution.class).getModifiedCount();
+            }
+            if (!ids.isEmpty()) {
+                outputStorage.deleteSpills(ids);
+                pause();
+            }
+        } while (ids.size() == batchSize);
+        return summarized;
+    }
+    
+    /**
+     * Runs whose command succeeded: completed with exit code 0, or recorded before
+     * exit codes were kept. Non-zero exits are completed too, but count as failures.
+     */
+    private static Criteria succeededRuns(String taskId) {
+        return Criteria.where("taskId").is(taskId)
+            .and("status").is(ExecutionStatus.COMPLETED)
+            .and("exitCode").in(0, null);
+    }
+    
+    /**
+     * First summary-chars code points, as $substrCP cuts them.
+     */
+    private String summaryOf(String output) {
+        if (output == null || output.codePointCount(0, output.length()) <= summaryChars) {
+            return output;
+        }
+        return output.substring(0, output.offsetByCodePoints(0, summaryChars));
+    }
+    
+    private List<String> batchIds(Query query) {
+        return mongoTemplate.find(query, TaskExecution.class).stream()
+            .map(TaskExecution::getId)
+            .collect(Collectors.toList());
+    }
+    
+    private void pause() throws InterruptedException {
+        if (batchPauseMillis > 0) {
+            Thread.sleep(batchPauseMillis);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.TaskNotFoundException;
+import com.example.taskmanager.model.ExecutionStats;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.repository.ExecutionRollups;
+import com.example.taskmanager.repository.TaskRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DocumentOperators;
+import org.springframework.data.mongodb.core.aggregation.SetWindowFieldsOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side execution statistics, so dashboards do not pull whole histories.
+ * Without rollups, aggregation pipelines over task_executions (matched on
+ * the indexed taskId) compute counts, exact nearest-rank duration percentiles,
+ * output sizes and the exit-code distribution; only the results leave the
+ * server. Percentiles number each task's runs in duration order with
+ * $setWindowFields (MongoDB 5.0+) and keep the rows at the wanted ranks, so
+ * no per-task array of durations is built, however long the history. With taskmanager.stats.rollups.enabled, tasks that have a rollup
+ * document are answered from it instead.
+ */
+@Service
+public class ExecutionStatsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionStatsService.class);
+    private static final String EXECUTIONS_COLLECTION = "task_executions";
+    private static final List<String> FINISHED = List.of(ExecutionStatus.COMPLETED.name(), ExecutionStatus.FAILED.name());
+    private static final AggregationExpression DURATION = ArithmeticOperators.Subtract.valueOf("endTime").subtract("startTime");
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private ExecutionRollups rollups;
+    
+    /**
+     * Statistics of one task.
+     * @throws TaskNotFoundException if the task does not exist
+     */
+    public ExecutionStats getTaskStats(String id) {
+        logger.info("Computing execution stats for task: {}", id);
+        if (!taskCache.exists(id)) {
+            throw new TaskNotFoundException(id);
+        }
+        return computeStats(List.of(id)).get(0);
+    }
+    
+    /**
+     * Statistics of every task of an owner, ordered by task ID.
+     */
+    public List<ExecutionStats> getOwnerStats(String owner) {
+        logger.info("Computing execution stats for owner: {}", owner);
+        List<String> taskIds = taskRepository.findIdsByOwner(owner).stream()
+            .map(Task::getId)
+            .sorted()
+            .collect(Collectors.toList());
+        return taskIds.isEmpty() ? List.of() : computeStats(taskIds);
+    }
+    
+    private List<ExecutionStats> computeStats(List<String> taskIds) {
+        Map<String, ExecutionStats> stats = rollups.isEnabled() ? rollups.find(taskIds) : new LinkedHashMap<>();
+        List<String> fromHistory = taskIds.stream()
+            .filter(id -> !stats.containsKey(id))
+            .collect(Collectors.toList());
+        if (!fromHistory.isEmpty()) {
+            stats.putAll(fromHistory(fromHistory));
+        }
+        
+        List<ExecutionStats> result = new ArrayList<>(taskIds.size());
+        for (String id : taskIds) {
+            result.add(stats.getOrDefault(id, noRuns(id)));
+        }
+        return result;
+    }
+    
+    private Map<String, ExecutionStats> fromHistory(Collection<String> taskIds) {
+        Criteria finished = Criteria.where("taskId").in(taskIds).and("status").in(FINISHED).and("endTime").ne(null);
+        Aggregation summary = Aggregation.newAggregation(
+            Aggregation.match(finished),
+            Aggregation.project("taskId", "status", "outputBytes", "startTime", "endTime")
+                .and(DURATION).as("durationMs"),
+            Aggregation.group("taskId")
+                .count().as("count")
+                .sum(ConditionalOperators.when(ComparisonOperators.valueOf("status").equalToValue(ExecutionStatus.FAILED.name()))
+                    .then(1).otherwise(0)).as("failed")
+                .avg("durationMs").as("avgDurationMs")
+                .max("durationMs").as("maxDurationMs")
+                .avg("outputBytes").as("avgOutputBytes")
+                .max("outputBytes").as("maxOutputBytes")
+                .sum("outputBytes").as("totalOutputBytes")
+                .min("startTime").as("firstRunAt")
+                .max("endTime").as("lastRunAt"));
+        
+        Aggregation exitCodes = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("taskId").in(taskIds).and("status").is(ExecutionStatus.COMPLETED.name())),
+            Aggregation.group("taskId", "exitCode").count().as("count"));
+        
+        Map<String, Map<String, Long>> codesByTask = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(exitCodes, EXECUTIONS_COLLECTION, Document.class)) {
+            Document key = row.get("_id", Document.class);
+            Object code = key.get("exitCode");
+            codesByTask.computeIfAbsent(key.getString("taskId"), id -> new TreeMap<>())
+                .put(code == null ? ExecutionStats.NO_EXIT_CODE : code.toString(), number(row.get("count")));
+        }
+        
+        List<Document> summaries = mongoTemplate.aggregate(summary, EXECUTIONS_COLLECTION, Document.class)
+            .getMappedResults();
+        Map<String, Map<Long, Long>> durationsByRank = durationsAtRanks(finished, summaries);
+        
+        Map<String, ExecutionStats> stats = new LinkedHashMap<>();
+        for (Document row : summaries) {
+            String taskId = row.getString("_id");
+            long count = number(row.get("count"));
+            long failed = number(row.get("failed"));
+            boolean hasOutputSizes = row.get("maxOutputBytes") != null;
+            Map<Long, Long> durations = durationsByRank.getOrDefault(taskId, Map.of());
+            stats.put(taskId, new ExecutionStats(
+                taskId,
+                ExecutionStats.SOURCE_HISTORY,
+                count,
+                failed,
+                count == 0 ? 0 : (double) failed / count,
+                rounded(row.get("avgDurationMs")),
+                durations.get(rank(count, 0.50)),
+                durations.get(rank(count, 0.95)),
+                durations.get(rank(count, 0.99)),
+                rounded(row.get("maxDurationMs")),
+                codesByTask.getOrDefault(taskId, new TreeMap<>()),
+                hasOutputSizes ? rounded(row.get("avgOutputBytes")) : null,
+                hasOutputSizes ? rounded(row.get("maxOutputBytes")) : null,
+                hasOutputSizes ? rounded(row.get("totalOutputBytes")) : null,
+                row.get("firstRunAt", Date.class),
+                row.get("lastRunAt", Date.class)));
+        }
+        return stats;
+    }
+    
+    /**
+     * Durations at the percentile ranks of each summarized task, keyed by rank.
+     * Runs finishing between the summary and this pipeline can shift a
+     * percentile by a rank; runs deleted in between can leave one empty.
+     */
+    private Map<String, Map<Long, Long>> durationsAtRanks(Criteria finished, List<Document> summaries) {
+        if (summaries.isEmpty()) {
+            return Map.of();
+        }
+        List<Criteria> wanted = new ArrayList<>(summaries.size());
+        for (Document row : summaries) {
+            long count = number(row.get("count"));
+            wanted.add(Criteria.where("taskId").is(row.getString("_id"))
+                .and("rank").in(rank(count, 0.50), rank(count, 0.95), rank(count, 0.99)));
+        }
+        
+        Aggregation ranked = Aggregation.newAggregation(
+            Aggregation.match(finished),
+            Aggregation.project("taskId").and(DURATION).as("durationMs"),
+            SetWindowFieldsOperation.builder()
+                .partitionByField("taskId")
+                .sortBy(Sort.by("durationMs"))
+                .output(DocumentOperators.documentNumber()).as("rank")
+                .build(),
+            Aggregation.match(new Criteria().orOperator(wanted))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        
+        Map<String, Map<Long, Long>> durations = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(ranked, EXECUTIONS_COLLECTION, Document.class)) {
+            durations.computeIfAbsent(row.getString("taskId"), id -> new LinkedHashMap<>())
+                .put(number(row.get("rank")), rounded(row.get("durationMs")));
+        }
+        return durations;
+    }
+    
+    /**
+     * 1-based nearest rank of a quantile among n sorted values: ceil(q * n).
+     */
+    private static long rank(long count, double quantile) {
+        return Math.max(1, (long) Math.ceil(quantile * count));
+    }
+    
+    private static ExecutionStats noRuns(String taskId) {
+        ExecutionStats stats = new ExecutionStats();
+        stats.setTaskId(taskId);
+        stats.setSource(ExecutionStats.SOURCE_HISTORY);
+        stats.setExitCodes(new TreeMap<>());
+        return stats;
+    }
+    
+    private static long number(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+    
+    private static Long rounded(Object value) {
+        return value instanceof Number ? Math.round(((Number) value).doubleValue()) : null;
+    }
+}
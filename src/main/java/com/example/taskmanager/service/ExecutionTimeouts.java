@@ -0,0 +1,41 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.Task;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timeout of a command run: the per-request value if one was given,
+ * else the task's timeoutSeconds, else taskmanager.execution.timeout-seconds,
+ * never more than taskmanager.execution.max-timeout-seconds.
+ */
+@Component
+public class ExecutionTimeouts {
+    
+    @Value("${taskmanager.execution.timeout-seconds:30}")
+    private int defaultSeconds;
+    
+    @Value("${taskmanager.execution.max-timeout-seconds:3600}")
+    private int maxSeconds;
+    
+    public int getDefaultSeconds() {
+        return Math.min(defaultSeconds, maxSeconds);
+    }
+    
+    /**
+     * Resolves the timeout of a run of a task.
+     * @param task The task to run
+     * @param requestedSeconds Timeout asked for by the caller, or null
+     * @return Timeout in seconds
+     * @throws IllegalArgumentException if the requested timeout is not positive
+     */
+    public int resolve(Task task, Integer requestedSeconds) {
+        if (requestedSeconds != null && requestedSeconds <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive, got " + requestedSeconds);
+        }
+        int seconds = requestedSeconds != null ? requestedSeconds
+            : task.getTimeoutSeconds() != null ? task.getTimeoutSeconds()
+            : defaultSeconds;
+        return Math.min(seconds, maxSeconds);
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.exception.ExecutionCancelledException;
+import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.ExecutionLeases;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Work-queue mode for several instances sharing one database
+ * (taskmanager.execution.queue.enabled). Submitted executions are queued in
+ * task_executions instead of running on the node that took the request;
+ * every worker node claims them through ExecutionLeases, at most
+ * max-concurrency at a time, and renews the leases of its running executions
+ * on a heartbeat. Leases of a crashed node expire and the executions are
+ * claimed again by another node, up to max-attempts runs per execution.
+ * Nodes with taskmanager.execution.queue.worker=false only enqueue.
+ * Runs are registered with RunningExecutions, so they follow its timeouts
+ * and cancellation; cancellations requested on other nodes are applied on
+ * the heartbeat, and runs stopped by shutdown go back to the queue.
+ */
+@Service
+public class ExecutionWorkQueue {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionWorkQueue.class);
+    
+    @Autowired
+    private ExecutionLeases leases;
+    
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private CommandExecutorService commandExecutor;
+    
+    @Autowired
+    private ExecutionOutputStreams outputStreams;
+    
+    @Autowired
+    private ExecutionMetrics metrics;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @Autowired
+    private RunningExecutions runningExecutions;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Value("${taskmanager.execution.queue.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${taskmanager.execution.queue.worker:true}")
+    private boolean worker;
+    
+    // Empty derives a unique ID from the process and host
+    @Value("${taskmanager.execution.queue.worker-id:}")
+    private String workerId;
+    
+    @Value("${taskmanager.execution.queue.max-concurrency:4}")
+    private int maxConcurrency;
+    
+    @Value("${taskmanager.execution.queue.lease-seconds:30}")
+    private int leaseSeconds;
+    
+    @Value("${taskmanager.execution.queue.heartbeat-seconds:10}")
+    private int heartbeatSeconds;
+    
+    @Value("${taskmanager.execution.queue.poll-interval-ms:500}")
+    private long pollIntervalMs;
+    
+    @Value("${taskmanager.execution.queue.max-attempts:3}")
+    private int maxAttempts;
+    
+    // Executions this node holds a lease on
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    
+    private Semaphore slots;
+    private ExecutorService runPool;
+    private ScheduledExecutorService heartbeat;
+    private volatile Thread poller;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled || !worker) {
+            logger.info("Execution work queue {}", enabled ? "enabled without a worker on this node" : "disabled");
+            return;
+        }
+        if (heartbeatSeconds <= 0 || heartbeatSeconds >= leaseSeconds) {
+            throw new IllegalArgumentException("taskmanager.execution.queue.heartbeat-seconds must be positive "
+                + "and shorter than lease-seconds (" + leaseSeconds + ")");
+        }
+        if (workerId == null || workerId.isBlank()) {
+            workerId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+                + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000));
+        }
+        
+        slots = new Semaphore(maxConcurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        runPool = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "task-queue-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-queue-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        
+        Thread thread = new Thread(this::pollLoop, "task-queue-poller");
+        thread.setDaemon(true);
+        poller = thread;
+        thread.start();
+        logger.info("Execution work queue started (worker: {}, max concurrency: {}, lease: {}s, heartbeat: {}s)",
+            workerId, maxConcurrency, leaseSeconds, heartbeatSeconds);
+    }
+    
+    @PreDestroy
+    void stop() {
+        Thread thread = poller;
+        if (thread != null) {
+            poller = null;
+            thread.interrupt();
+            heartbeat.shutdownNow();
+            runPool.shutdown();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Queues an execution of a task for any worker node to claim.
+     * @param timeoutSeconds Timeout the worker applies to the run
+     * @return The queued execution record; poll it by its ID for the result
+     */
+    public TaskExecution enqueue(Task task, int timeoutSeconds) {
+        logger.info("Queueing execution of task: {}", task.getId());
+        
+        TaskExecution execution = new TaskExecution();
+        execution.setId(new ObjectId().toHexString());
+        execution.setTaskId(task.getId());
+        execution.setStatus(ExecutionStatus.QUEUED);
+        execution.setQueuedAt(new Date());
+        execution.setTimeoutSeconds(timeoutSeconds);
+        taskExecutionRepository.insert(execution);
+        
+        // Other nodes see it on their next poll
+        Thread thread = poller;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        return execution;
+    }
+    
+    private void pollLoop() {
+        long pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (runningExecutions.isShuttingDown()) {
+                logger.info("Execution work queue stopped claiming for shutdown");
+                return;
+            }
+            
+            Optional<TaskExecution> claimed;
+            try {
+                claimed = leases.claim(workerId, TimeUnit.SECONDS.toMillis(leaseSeconds), maxAttempts);
+            } catch (RuntimeException e) {
+                logger.warn("Claiming a queued execution failed: {}", e.getMessage());
+                claimed = Optional.empty();
+            }
+            if (claimed.isEmpty()) {
+                slots.release();
+                LockSupport.parkNanos(pollIntervalNanos);
+                continue;
+            }
+            
+            TaskExecution execution = claimed.get();
+            running.add(execution.getId());
+            try {
+                runPool.execute(() -> {
+                    try {
+                        runClaimed(execution);
+                    } finally {
+                        running.remove(execution.getId());
+                        slots.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the lease expires and another node takes the execution
+                running.remove(execution.getId());
+                slots.release();
+                return;
+            }
+        }
+    }
+    
+    private void runClaimed(TaskExecution execution) {
+        String executionId = execution.getId();
+        logger.info("Running queued execution {} of task {} (attempt {})",
+            executionId, execution.getTaskId(), execution.getAttempts());
+        outputStreams.open(executionId);
+        RunningExecutions.Run run = runningExecutions.open(executionId);
+        try {
+            Optional<Task> task = taskCache.get(execution.getTaskId());
+            if (task.isEmpty()) {
+                execution.setOutput("Task not found: " + execution.getTaskId());
+                execution.setStatus(ExecutionStatus.FAILED);
+            } else {
+                execute(task.get(), execution, run);
+            }
+            
+            if (run.getStopReason() == RunningExecutions.StopReason.SHUTDOWN) {
+                if (leases.requeue(executionId, workerId, execution.getAttempts())) {
+                    logger.info("Execution {} returned to the queue at shutdown", executionId);
+                    execution.setStatus(ExecutionStatus.QUEUED);
+                }
+                return;
+            }
+            execution.setEndTime(new Date());
+            
+            if (!leases.release(executionId, workerId, execution.getAttempts())) {
+                logger.warn("Lease on execution {} was lost, discarding its result", executionId);
+                return;
+            }
+            execution.setLeaseExpiresAt(null);
+            execution.setCancelRequested(null);
+            Timer.Sample save = metrics.startStage();
+            taskExecutionRepository.save(execution);
+            if (task.isPresent()) {
+                taskCache.recordExecution(task.get().getId(), execution.getEndTime());
+                metrics.recordStage(save, ExecutionMetrics.STAGE_SAVE, task.get().getCommand());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Queued execution {} could not be recorded: {}", executionId, e.getMessage());
+        } finally {
+            runningExecutions.close(run);
+            outputStreams.close(executionId,
+                execution.getStatus() == ExecutionStatus.RUNNING ? ExecutionStatus.FAILED : execution.getStatus());
+        }
+    }
+    
+    private void execute(Task task, TaskExecution execution, RunningExecutions.Run run) {
+        try {
+            // The allowlist may differ from the node that queued the execution
+            commandValidator.checkCommand(task.getCommand());
+            CommandResult result = commandExecutor.executeCommand(task.getCommand(), task.getArgv(),
+                chunk -> outputStreams.publish(execution.getId(), chunk),
+                run, timeouts.resolve(task, execution.getTimeoutSeconds()));
+            execution.setOutput(result.getOutput());
+            execution.setExitCode(result.getExitCode());
+            execution.setStatus(ExecutionStatus.COMPLETED);
+        } catch (ExecutionCancelledException e) {
+            logger.info("Queued execution {}: {}", execution.getId(), e.getMessage());
+            execution.setOutput(e.getMessage());
+            execution.setStatus(ExecutionStatus.CANCELLED);
+        } catch (CommandExecutionException | InvalidCommandException e) {
+            logger.error("Queued execution {} failed: {}", execution.getId(), e.getMessage());
+            execution.setOutput(e.getMessage());
+            execution.setStatus(ExecutionStatus.FAILED);
+        }
+    }
+    
+    private void heartbeat() {
+        try {
+            if (!running.isEmpty()) {
+                Set<String> held = Set.copyOf(running);
+                long renewed = leases.renew(workerId, held, TimeUnit.SECONDS.toMillis(leaseSeconds));
+                logger.debug("Renewed {} of {} execution leases", renewed, held.size());
+                leases.cancelRequested(workerId, held).forEach(runningExecutions::cancel);
+            }
+            long failed = leases.failExhausted(maxAttempts);
+            if (failed > 0) {
+                logger.warn("Failed {} executions whose workers stopped renewing their leases", failed);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Execution lease heartbeat failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.taskmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded capture of a command's output.
+ * Keeps the first half of the byte budget as head and the last half in a
+ * fixed-size ring buffer as tail; everything in between is counted and
+ * replaced by a truncation marker, so memory per run never exceeds the cap.
+ * Buffers are sized by the output rather than the cap: the head grows on
+ * demand and the tail ring is only allocated once the head is full, so a
+ * short command costs a few hundred bytes however large the cap is.
+ */
+public class OutputCapture {
+    
+    private static final String TRUNCATION_MARKER = "\n... [%d bytes truncated] ...\n";
+    private static final int INITIAL_HEAD_BYTES = 256;
+    private static final byte[] EMPTY = new byte[0];
+    
+    private final int headCapacity;
+    private final int tailCapacity;
+    private byte[] head = EMPTY;
+    // Null until output overflows the head
+    private byte[] tail;
+    private int headLength;
+    private int tailStart;
+    private int tailLength;
+    private long totalBytes;
+    
+    /**
+     * @param maxBytes Maximum number of output bytes retained (at least 2)
+     */
+    public OutputCapture(int maxBytes) {
+        if (maxBytes < 2) {
+            throw new IllegalArgumentException("Output capture needs at least 2 bytes, got " + maxBytes);
+        }
+        this.headCapacity = maxBytes / 2;
+        this.tailCapacity = maxBytes - headCapacity;
+    }
+    
+    /**
+     * Appends a chunk of output.
+     */
+    public synchronized void write(byte[] data, int offset, int length) {
+        totalBytes += length;
+        
+        // Fill the head first
+        int toHead = Math.min(length, headCapacity - headLength);
+        if (toHead > 0) {
+            growHead(headLength + toHead);
+            System.arraycopy(data, offset, head, headLength, toHead);
+            headLength += toHead;
+            offset += toHead;
+            length -= toHead;
+        }
+        if (length == 0) {
+            return;
+        }
+        if (tail == null) {
+            tail = new byte[tailCapacity];
+        }
+        
+        // Chunk larger than the ring: only its last bytes survive
+        if (length >= tailCapacity) {
+            System.arraycopy(data, offset + length - tailCapacity, tail, 0, tailCapacity);
+            tailStart = 0;
+            tailLength = tailCapacity;
+            return;
+        }
+        
+        int writePosition = (tailStart + tailLength) % tailCapacity;
+        int firstPart = Math.min(length, tailCapacity - writePosition);
+        System.arraycopy(data, offset, tail, writePosition, firstPart);
+        System.arraycopy(data, offset + firstPart, tail, 0, length - firstPart);
+        
+        int newLength = tailLength + length;
+        if (newLength > tailCapacity) {
+            tailStart = (tailStart + newLength - tailCapacity) % tailCapacity;
+            tailLength = tailCapacity;
+        } else {
+            tailLength = newLength;
+        }
+    }
+    
+    /**
+     * Grows the head to hold at least the given number of bytes, doubling up to its capacity.
+     */
+    private void growHead(int required) {
+        if (required <= head.length) {
+            return;
+        }
+        int size = Math.max(head.length, INITIAL_HEAD_BYTES);
+        while (size < required) {
+            size = (int) Math.min(2L * size, headCapacity);
+        }
+        head = Arrays.copyOf(head, Math.min(size, headCapacity));
+    }
+    
+    /**
+     * @return Total number of bytes written, including discarded ones
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    /**
+     * @return true if bytes between head and tail were discarded
+     */
+    public synchronized boolean isTruncated() {
+        return totalBytes > headLength + tailLength;
+    }
+    
+    /**
+     * Decodes the retained output as UTF-8, with a marker where bytes were dropped.
+     */
+    public synchronized String toOutputString() {
+        byte[] tailBytes = new byte[tailLength];
+        if (tail != null) {
+            int firstPart = Math.min(tailLength, tailCapacity - tailStart);
+            System.arraycopy(tail, tailStart, tailBytes, 0, firstPart);
+            System.arraycopy(tail, 0, tailBytes, firstPart, tailLength - firstPart);
+        }
+        
+        long discarded = totalBytes - headLength - tailLength;
+        if (discarded <= 0) {
+            byte[] all = new byte[headLength + tailLength];
+            System.arraycopy(head, 0, all, 0, headLength);
+            System.arraycopy(tailBytes, 0, all, headLength, tailLength);
+            return new String(all, StandardCharsets.UTF_8);
+        }
+        
+        return new String(head, 0, headLength, StandardCharsets.UTF_8)
+            + String.format(TRUNCATION_MARKER, discarded)
+            + new String(tailBytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Non-blocking counterpart of CommandExecutorService (reactive profile).
+ * Process output is exposed as a Flux of DataBuffers. Spawning the process
+ * and reading its pipe are blocking calls, so they run on the bounded
+ * elastic scheduler; no event-loop thread ever waits on a process.
+ */
+@Profile("reactive")
+@Service
+public class ReactiveCommandExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCommandExecutor.class);
+    private static final int READ_BUFFER_SIZE = 8192;
+    
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    
+    @Autowired
+    private ExecutionMetrics metrics;
+    
+    @Value("${taskmanager.execution.output.max-bytes:1048576}")
+    private int maxOutputBytes;
+    
+    /**
+     * Runs a command and streams its merged stdout/stderr as it is produced.
+     * A non-zero exit code is emitted as a final "Exit code: N" line, as in
+     * the blocking executor's output, and handed to the exit code listener
+     * before the stream completes. The process is killed on timeout or when
+     * the subscriber cancels.
+     *
+     * @param command The command line (used for logging and metrics)
+     * @param argv Program and arguments parsed from the command, or null to parse it now
+     * @param timeoutSeconds Time after which the process is killed (see ExecutionTimeouts)
+     * @param exitCodeListener Receives the exit code of the process, may be null
+     * @return Raw output buffers; the subscriber must release them
+     */
+    public Flux<DataBuffer> streamOutput(String command, List<String> argv, int timeoutSeconds,
+            IntConsumer exitCodeListener) {
+        Mono<Long> deadline = Mono.delay(Duration.ofSeconds(timeoutSeconds)).cache();
+        
+        return Flux.using(
+                () -> start(command, argv != null ? argv : CommandTokenizer.tokenize(command)),
+                process -> DataBufferUtils.readInputStream(process::getInputStream, bufferFactory, READ_BUFFER_SIZE)
+                    .concatWith(Mono.fromFuture(process.onExit()).flatMap(exited -> exitCodeLine(command, exited, exitCodeListener))),
+                ReactiveCommandExecutor::destroyIfAlive)
+            // The same cached delay bounds every item, so the whole run is bounded
+            .timeout(deadline, item -> deadline)
+            .onErrorMap(TimeoutException.class, e -> {
+                metrics.recordTimeout(command);
+                return new CommandExecutionException(
+                    "Command execution timed out after " + timeoutSeconds + " seconds", e);
+            })
+            .onErrorMap(e -> !(e instanceof CommandExecutionException),
+                e -> new CommandExecutionException("Failed to execute command: " + e.getMessage(), e))
+            .doFirst(metrics::executionStarted)
+            .doFinally(signal -> metrics.executionFinished())
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Runs a command and collects its (bounded) output, formatted like
+     * CommandExecutorService.executeCommand.
+     *
+     * @param command The command line (used for logging and metrics)
+     * @param argv Program and arguments parsed from the command, or null to parse it now
+     * @param timeoutSeconds Time after which the process is killed
+     * @return The command output and the exit code of the process
+     */
+    public Mono<CommandResult> executeCommand(String command, List<String> argv, int timeoutSeconds) {
+        return Mono.defer(() -> {
+            OutputCapture capture = new OutputCapture(maxOutputBytes);
+            AtomicInteger exitCode = new AtomicInteger();
+            return streamOutput(command, argv, timeoutSeconds, exitCode::set)
+                .doOnNext(buffer -> capture(capture, buffer))
+                .then(Mono.fromSupplier(() -> {
+                    metrics.recordOutputBytes(command, capture.getTotalBytes());
+                    String result = capture.toOutputString().trim();
+                    logger.info("Command execution completed. Output: {} bytes produced, {} characters kept{}",
+                        capture.getTotalBytes(), result.length(), capture.isTruncated() ? " (truncated)" : "");
+                    return new CommandResult(result.isEmpty() ? "Command executed successfully (no output)" : result,
+                        exitCode.get());
+                }));
+        });
+    }
+    
+    /**
+     * Copies a buffer into a capture and releases it.
+     */
+    static void capture(OutputCapture capture, DataBuffer buffer) {
+        try {
+            copyInto(capture, buffer);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+    
+    /**
+     * Copies the readable bytes of a buffer into a capture without consuming them.
+     */
+    static void copyInto(OutputCapture capture, DataBuffer buffer) {
+        int readPosition = buffer.readPosition();
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        buffer.readPosition(readPosition);
+        capture.write(bytes, 0, bytes.length);
+    }
+    
+    private Process start(String command, List<String> argv) throws IOException {
+        logger.info("Executing command: {}", command);
+        if (argv.isEmpty()) {
+            throw new IOException("command is empty");
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(argv);
+        processBuilder.redirectErrorStream(true);
+        return processBuilder.start();
+    }
+    
+    private Mono<DataBuffer> exitCodeLine(String command, Process process, IntConsumer exitCodeListener) {
+        int exitCode = process.exitValue();
+        metrics.recordExitCode(command, exitCode);
+        if (exitCodeListener != null) {
+            exitCodeListener.accept(exitCode);
+        }
+        if (exitCode == 0) {
+            return Mono.empty();
+        }
+        logger.warn("Command exited with code: {}", exitCode);
+        return Mono.just(bufferFactory.wrap(("\n" + CommandExecutorService.EXIT_CODE_LINE + exitCode).getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static void destroyIfAlive(Process process) {
+        if (process.isAlive()) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+}
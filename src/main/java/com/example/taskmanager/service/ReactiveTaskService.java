@@ -0,0 +1,237 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.exception.TaskNotFoundException;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.ReactiveExecutionOutputStorage;
+import com.example.taskmanager.repository.ReactiveExecutionRollups;
+import com.example.taskmanager.repository.ReactiveTaskExecutionRepository;
+import com.example.taskmanager.repository.ReactiveTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking Task business logic for the reactive profile.
+ * Mirrors TaskService on the reactive repositories and executor.
+ */
+@Profile("reactive")
+@Service
+public class ReactiveTaskService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTaskService.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    @Autowired
+    private ReactiveTaskRepository taskRepository;
+    
+    @Autowired
+    private ReactiveTaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @Autowired
+    private ReactiveCommandExecutor commandExecutor;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Autowired
+    private ExecutionResultCache resultCache;
+    
+    @Autowired
+    private TaskSchedulerService scheduler;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private ReactiveExecutionOutputStorage outputStorage;
+    
+    @Autowired
+    private ReactiveExecutionRollups rollups;
+    
+    @Value("${taskmanager.history.inline-limit:50}")
+    private int historyInlineLimit;
+    
+    @Value("${taskmanager.execution.output.max-bytes:1048576}")
+    private int maxOutputBytes;
+    
+    /**
+     * Get all tasks (metadata only, no execution history).
+     */
+    public Flux<Task> getAllTasks() {
+        logger.info("Fetching all tasks");
+        return taskRepository.findAll();
+    }
+    
+    /**
+     * Get a task by ID, with its most recent executions attached.
+     */
+    public Mono<Task> getTaskById(String id) {
+        logger.info("Fetching task with id: {}", id);
+        return findTask(id).flatMap(this::attachRecentExecutions);
+    }
+    
+    /**
+     * Get a page of a task's execution history, most recent first.
+     * @param includeOutput Whether to load outputs stored compressed or in GridFS
+     */
+    public Flux<TaskExecution> getTaskExecutions(String id, int page, int size, boolean includeOutput) {
+        logger.info("Fetching executions for task: {} (page {}, size {}, output: {})", id, page, size, includeOutput);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        return taskRepository.existsById(id)
+            .flatMapMany(exists -> !exists
+                ? Flux.error(new TaskNotFoundException(id))
+                : includeOutput
+                    ? taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(id, pageRequest)
+                    : taskExecutionRepository.findSummariesByTaskId(id, pageRequest));
+    }
+    
+    /**
+     * Create a new task after validating the command.
+     */
+    public Mono<Task> createTask(Task task) {
+        logger.info("Creating new task: {}", task.getName());
+        return Mono.fromRunnable(() -> {
+                commandValidator.validateCommand(task.getCommand());
+                scheduler.validateSchedule(task.getSchedule());
+                task.setArgv(CommandTokenizer.tokenize(task.getCommand()));
+                task.setTaskExecutions(new ArrayList<>());
+            })
+            .then(Mono.defer(() -> taskRepository.save(task)))
+            .doOnNext(savedTask -> {
+                taskCache.invalidate(savedTask.getId());
+                resultCache.invalidate(savedTask.getId());
+                scheduler.register(savedTask);
+            });
+    }
+    
+    /**
+     * Delete a task by ID.
+     */
+    public Mono<Void> deleteTask(String id) {
+        logger.info("Deleting task with id: {}", id);
+        return taskRepository.existsById(id)
+            .flatMap(exists -> exists
+                ? taskRepository.deleteById(id)
+                    .then(taskExecutionRepository.deleteByTaskId(id))
+                    .then(outputStorage.deleteSpills(id))
+                    .then(rollups.delete(id))
+                : Mono.error(new TaskNotFoundException(id)))
+            .doOnSuccess(done -> {
+                taskCache.invalidate(id);
+                resultCache.invalidate(id);
+                scheduler.unregister(id);
+            });
+    }
+    
+    /**
+     * Find tasks by name using the indexed search fields (case-insensitive).
+     */
+    public Flux<Task> findTasksByName(String name, boolean prefixOnly, int page, int size) {
+        logger.info("Finding tasks with name {}: {} (page {}, size {})",
+            prefixOnly ? "starting with" : "containing", name, page, size);
+        
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Flux.error(new IllegalArgumentException(
+                "page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE));
+        }
+        
+        return taskRepository.searchByName(name, prefixOnly, page, size)
+            .switchIfEmpty(Flux.error(new TaskNotFoundException("No tasks found with name containing: " + name)));
+    }
+    
+    /**
+     * Execute a task and store the execution result.
+     * The blocking result cache is not consulted: every call runs the command.
+     * @param timeoutSeconds Timeout of this run, or null for the task's
+     */
+    public Mono<Task> executeTask(String id, Integer timeoutSeconds) {
+        logger.info("Executing task with id: {}", id);
+        return findTask(id).flatMap(task -> {
+            commandValidator.checkCommand(task.getCommand());
+            int timeout = timeouts.resolve(task, timeoutSeconds);
+            Date startTime = new Date();
+            return commandExecutor.executeCommand(task.getCommand(), task.getArgv(), timeout)
+                .flatMap(result -> record(task, startTime, result.getOutput(), result.getExitCode(),
+                    ExecutionStatus.COMPLETED))
+                .then(attachRecentExecutions(task));
+        });
+    }
+    
+    /**
+     * Execute a task and stream its output while it runs. The captured output
+     * is appended to the history when the command finishes or fails.
+     * @param timeoutSeconds Timeout of this run, or null for the task's
+     */
+    public Flux<DataBuffer> executeTaskStreaming(String id, Integer timeoutSeconds) {
+        logger.info("Executing task with id: {} (streaming)", id);
+        return findTask(id).flatMapMany(task -> {
+            commandValidator.checkCommand(task.getCommand());
+            int timeout = timeouts.resolve(task, timeoutSeconds);
+            Date startTime = new Date();
+            OutputCapture capture = new OutputCapture(maxOutputBytes);
+            AtomicInteger exitCode = new AtomicInteger();
+            return commandExecutor.streamOutput(task.getCommand(), task.getArgv(), timeout, exitCode::set)
+                // Keep a copy for the history; the buffer itself goes to the client
+                .doOnNext(buffer -> ReactiveCommandExecutor.copyInto(capture, buffer))
+                .concatWith(Mono.defer(() ->
+                    record(task, startTime, capture.toOutputString().trim(), exitCode.get(), ExecutionStatus.COMPLETED)
+                        .then(Mono.<DataBuffer>empty())))
+                .onErrorResume(CommandExecutionException.class, e ->
+                    record(task, startTime, e.getMessage(), null, ExecutionStatus.FAILED).then(Mono.<DataBuffer>error(e)));
+        });
+    }
+    
+    private Mono<Task> findTask(String id) {
+        return taskRepository.findById(id)
+            .switchIfEmpty(Mono.error(new TaskNotFoundException(id)));
+    }
+    
+    /**
+     * Append an execution to the history and update the task counters.
+     */
+    private Mono<TaskExecution> record(Task task, Date startTime, String output, Integer exitCode,
+            ExecutionStatus status) {
+        TaskExecution execution = new TaskExecution();
+        execution.setTaskId(task.getId());
+        execution.setStartTime(startTime);
+        execution.setEndTime(new Date());
+        execution.setOutput(output);
+        execution.setExitCode(exitCode);
+        execution.setStatus(status);
+        return taskExecutionRepository.insert(execution)
+            .flatMap(saved -> taskRepository.recordExecution(task.getId(), saved.getEndTime()).thenReturn(saved));
+    }
+    
+    /**
+     * Attach the most recent executions to a task, oldest first.
+     */
+    private Mono<Task> attachRecentExecutions(Task task) {
+        return taskExecutionRepository.findSummariesByTaskId(task.getId(), PageRequest.of(0, historyInlineLimit))
+            .collectList()
+            .map(executions -> {
+                List<TaskExecution> oldestFirst = new ArrayList<>(executions);
+                Collections.reverse(oldestFirst);
+                task.setTaskExecutions(oldestFirst);
+                return task;
+            });
+    }
+}
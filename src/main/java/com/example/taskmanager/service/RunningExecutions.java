@@ -0,0 +1,242 @@
+package com.example.taskmanager.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the command runs in progress on this node, and the watchdog
+ * that stops them. Every run registers its process here and one scheduler
+ * thread kills the process tree when the run's deadline passes, so caller
+ * threads just wait for the process to exit. Runs opened with an execution
+ * ID can be cancelled by that ID, also before their process has started.
+ * Stopping terminates the process tree and kills whatever is still alive
+ * kill-grace-ms later.
+ * On shutdown (after the web server has stopped taking requests) new runs
+ * are refused, runs in progress get shutdown.grace-seconds to finish and
+ * the rest are stopped.
+ */
+@Service
+public class RunningExecutions implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RunningExecutions.class);
+    
+    /**
+     * Why a run was stopped.
+     */
+    public enum StopReason {
+        TIMEOUT,
+        CANCELLED,
+        SHUTDOWN
+    }
+    
+    @Value("${taskmanager.execution.kill-grace-ms:2000}")
+    private long killGraceMillis;
+    
+    @Value("${taskmanager.execution.shutdown.grace-seconds:20}")
+    private long shutdownGraceSeconds;
+    
+    // Runs with an execution ID, cancellable through the API
+    private final ConcurrentHashMap<String, Run> byExecutionId = new ConcurrentHashMap<>();
+    
+    // All open runs, including anonymous ones
+    private final Set<Run> active = ConcurrentHashMap.newKeySet();
+    
+    private ScheduledExecutorService watchdog;
+    private volatile boolean running;
+    private volatile boolean shuttingDown;
+    
+    @PostConstruct
+    void startWatchdog() {
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "execution-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopWatchdog() {
+        watchdog.shutdownNow();
+    }
+    
+    /**
+     * Opens a run before its process is started.
+     * @param executionId Execution the run belongs to, or null for a run that cannot be cancelled by ID
+     * @return The run; already stopped if the application is shutting down
+     */
+    public Run open(String executionId) {
+        Run run = executionId == null ? new Run(null) : byExecutionId.computeIfAbsent(executionId, Run::new);
+        active.add(run);
+        if (shuttingDown) {
+            stop(run, StopReason.SHUTDOWN);
+        }
+        return run;
+    }
+    
+    /**
+     * Attaches a started process to a run and arms its deadline. A run that
+     * was stopped before its process started is stopped again at once.
+     */
+    public void start(Run run, Process process, int timeoutSeconds) {
+        run.deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        run.process = process;
+        run.deadline = watchdog.schedule(() -> stop(run, StopReason.TIMEOUT), timeoutSeconds, TimeUnit.SECONDS);
+        if (run.stopReason != null) {
+            destroyTree(process);
+        }
+    }
+    
+    /**
+     * Removes a finished run and disarms its deadline.
+     */
+    public void close(Run run) {
+        ScheduledFuture<?> deadline = run.deadline;
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+        active.remove(run);
+        if (run.executionId != null) {
+            byExecutionId.remove(run.executionId, run);
+        }
+    }
+    
+    /**
+     * Cancels the run of an execution on this node.
+     * @return false if no run of the execution is open here
+     */
+    public boolean cancel(String executionId) {
+        Run run = byExecutionId.get(executionId);
+        if (run == null) {
+            return false;
+        }
+        logger.info("Cancelling execution {}", executionId);
+        stop(run, StopReason.CANCELLED);
+        return true;
+    }
+    
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+    
+    /**
+     * Stops a run; the first reason sticks.
+     */
+    void stop(Run run, StopReason reason) {
+        synchronized (run) {
+            if (run.stopReason != null) {
+                return;
+            }
+            run.stopReason = reason;
+        }
+        Process process = run.process;
+        if (process != null) {
+            destroyTree(process);
+        }
+    }
+    
+    private void destroyTree(Process process) {
+        // Taken before the parent dies, after which its children are no longer its descendants
+        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+        process.destroy();
+        descendants.forEach(ProcessHandle::destroy);
+        try {
+            watchdog.schedule(() -> {
+                process.destroyForcibly();
+                descendants.forEach(ProcessHandle::destroyForcibly);
+            }, killGraceMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            process.destroyForcibly();
+            descendants.forEach(ProcessHandle::destroyForcibly);
+        }
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        shuttingDown = true;
+        if (!awaitIdle(TimeUnit.SECONDS.toMillis(shutdownGraceSeconds))) {
+            logger.warn("Stopping {} command runs still in progress at shutdown", active.size());
+            active.forEach(run -> stop(run, StopReason.SHUTDOWN));
+            // Leave the runs time to be killed and recorded
+            awaitIdle(killGraceMillis + 1000);
+        }
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Stops after the web server (DEFAULT_PHASE - 2048), so no requests start new runs while draining
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    private boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!active.isEmpty() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return active.isEmpty();
+    }
+    
+    /**
+     * One command run: its process once started, its deadline and why it was stopped.
+     */
+    public static final class Run {
+        
+        private final String executionId;
+        private volatile Process process;
+        private volatile StopReason stopReason;
+        private volatile ScheduledFuture<?> deadline;
+        private volatile long deadlineNanos;
+        
+        private Run(String executionId) {
+            this.executionId = executionId;
+        }
+        
+        public String getExecutionId() {
+            return executionId;
+        }
+        
+        public StopReason getStopReason() {
+            return stopReason;
+        }
+        
+        public boolean isStopped() {
+            return stopReason != null;
+        }
+        
+        /**
+         * Time left until the deadline, 0 once it has passed.
+         */
+        long remainingNanos() {
+            return Math.max(0, deadlineNanos - System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.TaskRepository;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-through cache of task definitions (no execution history).
+ * Least recently used entries are evicted first. Entries are invalidated on
+ * create/delete and, when taskmanager.task-cache.change-streams is enabled
+ * (replica set required), on changes made by other instances. Updates that
+ * only move the execution counters patch the cached entry instead, so hot
+ * tasks stay cached while they run.
+ */
+@Service
+public class TaskDefinitionCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskDefinitionCache.class);
+    private static final String TASKS_COLLECTION = "tasks";
+    private static final Set<String> COUNTER_FIELDS = Set.of("executionCount", "lastExecutedAt");
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${taskmanager.task-cache.change-streams:false}")
+    private boolean changeStreams;
+    
+    private final Map<String, Task> tasks;
+    
+    // Bumped under the tasks lock by every invalidation, so a load that raced one is not cached
+    private long invalidations;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    private MessageListenerContainer changeListener;
+    
+    // Counter updates arrive as change events while the change stream runs
+    private volatile boolean changeStreamActive;
+    
+    public TaskDefinitionCache(@Value("${taskmanager.task-cache.max-entries:10000}") int maxEntries,
+            MeterRegistry registry) {
+        this.tasks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Task> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        
+        FunctionCounter.builder("taskmanager.task.cache.gets", hits, AtomicLong::get)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("taskmanager.task.cache.gets", misses, AtomicLong::get)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("taskmanager.task.cache.evictions", evictions, AtomicLong::get)
+            .register(registry);
+        Gauge.builder("taskmanager.task.cache.size", this, TaskDefinitionCache::size)
+            .register(registry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    void startChangeStream() {
+        if (!changeStreams) {
+            return;
+        }
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder(this::onChange)
+            .collection(TASKS_COLLECTION)
+            .build();
+        changeListener = new DefaultMessageListenerContainer(mongoTemplate);
+        changeListener.register(request, Document.class, e -> {
+            // Without events other instances' changes would go unnoticed
+            logger.error("Task change stream failed, clearing task cache", e);
+            changeStreamActive = false;
+            clear();
+        });
+        changeListener.start();
+        changeStreamActive = true;
+        logger.info("Task cache listening to change stream on {}", TASKS_COLLECTION);
+    }
+    
+    @PreDestroy
+    void stopChangeStream() {
+        if (changeListener != null) {
+            changeListener.stop();
+        }
+    }
+    
+    /**
+     * Returns a task definition, loading it on a miss.
+     *
+     * @param id The task ID
+     * @return A copy of the task without execution history, if it exists
+     */
+    public Optional<Task> get(String id) {
+        Task cached;
+        long invalidationsBeforeLoad;
+        synchronized (tasks) {
+            cached = tasks.get(id);
+            invalidationsBeforeLoad = invalidations;
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(copyOf(cached));
+        }
+        
+        misses.incrementAndGet();
+        Optional<Task> loaded = taskRepository.findById(id);
+        loaded.ifPresent(task -> {
+            Task copy = copyOf(task);
+            synchronized (tasks) {
+                // A delete or change between the read and here may have made the loaded task stale
+                if (invalidations == invalidationsBeforeLoad) {
+                    tasks.put(task.getId(), copy);
+                }
+            }
+        });
+        return loaded.map(TaskDefinitionCache::copyOf);
+    }
+    
+    /**
+     * @return true if the task exists
+     */
+    public boolean exists(String id) {
+        return get(id).isPresent();
+    }
+    
+    /**
+     * Caches a task that was just written.
+     */
+    public void put(Task task) {
+        Task copy = copyOf(task);
+        synchronized (tasks) {
+            tasks.put(task.getId(), copy);
+        }
+    }
+    
+    /**
+     * Drops a cached task definition.
+     */
+    public void invalidate(String id) {
+        synchronized (tasks) {
+            invalidations++;
+            tasks.remove(id);
+        }
+    }
+    
+    /**
+     * Counts an execution in the database and in the cached definition.
+     */
+    public void recordExecution(String taskId, Date executedAt) {
+        taskRepository.recordExecution(taskId, executedAt);
+        countLocally(taskId, executedAt);
+    }
+    
+    /**
+     * Counts many executions with one bulk write; cached definitions are patched.
+     */
+    public void recordExecutions(List<TaskExecution> executions) {
+        taskRepository.recordExecutions(executions);
+        executions.forEach(execution -> countLocally(execution.getTaskId(), execution.getEndTime()));
+    }
+    
+    private void countLocally(String taskId, Date executedAt) {
+        if (changeStreamActive) {
+            return;
+        }
+        synchronized (tasks) {
+            Task cached = tasks.get(taskId);
+            if (cached != null) {
+                cached.setExecutionCount(cached.getExecutionCount() == null ? 1 : cached.getExecutionCount() + 1);
+                if (cached.getLastExecutedAt() == null || cached.getLastExecutedAt().before(executedAt)) {
+                    cached.setLastExecutedAt(executedAt);
+                }
+            }
+        }
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    public int size() {
+        synchronized (tasks) {
+            return tasks.size();
+        }
+    }
+    
+    private void clear() {
+        synchronized (tasks) {
+            invalidations++;
+            tasks.clear();
+        }
+    }
+    
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        BsonDocument key = event.getDocumentKey();
+        if (key == null) {
+            // drop / rename / invalidate of the collection
+            clear();
+            return;
+        }
+        
+        BsonValue rawId = key.get("_id");
+        String id = rawId.isObjectId() ? rawId.asObjectId().getValue().toHexString()
+            : rawId.isString() ? rawId.asString().getValue() : null;
+        if (id == null) {
+            return;
+        }
+        
+        UpdateDescription update = event.getUpdateDescription();
+        if (event.getOperationType() == OperationType.UPDATE && update != null && isCounterUpdate(update)) {
+            applyCounters(id, update.getUpdatedFields());
+        } else {
+            invalidate(id);
+        }
+    }
+    
+    private static boolean isCounterUpdate(UpdateDescription update) {
+        return (update.getRemovedFields() == null || update.getRemovedFields().isEmpty())
+            && update.getUpdatedFields() != null
+            && COUNTER_FIELDS.containsAll(update.getUpdatedFields().keySet());
+    }
+    
+    /**
+     * Change events carry the new absolute counter values.
+     */
+    private void applyCounters(String id, BsonDocument fields) {
+        synchronized (tasks) {
+            Task cached = tasks.get(id);
+            if (cached == null) {
+                return;
+            }
+            BsonValue count = fields.get("executionCount");
+            if (count != null && count.isNumber()) {
+                cached.setExecutionCount(count.asNumber().longValue());
+            }
+            BsonValue executedAt = fields.get("lastExecutedAt");
+            if (executedAt != null && executedAt.isDateTime()) {
+                cached.setLastExecutedAt(new Date(executedAt.asDateTime().getValue()));
+            }
+        }
+    }
+    
+    /**
+     * Definitions are shared between callers, so every reader gets its own copy.
+     */
+    private static Task copyOf(Task task) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setName(task.getName());
+        copy.setOwner(task.getOwner());
+        copy.setCommand(task.getCommand());
+        copy.setArgv(task.getArgv());
+        copy.setResultCacheSeconds(task.getResultCacheSeconds());
+        copy.setTimeoutSeconds(task.getTimeoutSeconds());
+        copy.setSchedule(task.getSchedule());
+        copy.setExecutionCount(task.getExecutionCount());
+        copy.setLastExecutedAt(task.getLastExecutedAt());
+        return copy;
+    }
+}
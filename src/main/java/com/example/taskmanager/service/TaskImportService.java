@@ -0,0 +1,251 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskImportError;
+import com.example.taskmanager.model.TaskImportResult;
+import com.example.taskmanager.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service for creating many tasks from one NDJSON body, one task per line.
+ * The body is read incrementally, taskmanager.import.chunk-size lines at a
+ * time; each chunk is parsed and validated in parallel on a bounded pool and
+ * written with one bulk insert, so memory is bounded by the chunk however
+ * large the import. Ordered imports stop at the first line that fails,
+ * unordered imports write every valid line; failed lines are reported by number.
+ */
+@Service
+public class TaskImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskImportService.class);
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @Autowired
+    private TaskSchedulerService scheduler;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${taskmanager.import.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${taskmanager.import.parallelism:4}")
+    private int parallelism;
+    
+    private ExecutorService importPool;
+    
+    @PostConstruct
+    void startImportPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        importPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "task-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopImportPool() {
+        importPool.shutdownNow();
+    }
+    
+    /**
+     * Import tasks from an NDJSON stream; blank lines are ignored.
+     * Tasks without an ID get a generated one, tasks whose ID exists fail.
+     *
+     * @param body One task document per line
+     * @param ordered Whether to stop at the first line that fails
+     * @return Counts and the failed lines
+     */
+    public TaskImportResult importTasks(InputStream body, boolean ordered) {
+        logger.info("Importing tasks ({}, chunks of {})", ordered ? "ordered" : "unordered", chunkSize);
+        
+        TaskImportResult result = new TaskImportResult();
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        boolean stopped = false;
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                result.setLines(result.getLines() + 1);
+                if (stopped) {
+                    result.setSkipped(result.getSkipped() + 1);
+                    continue;
+                }
+                chunk.add(new ImportLine(lineNumber, text));
+                if (chunk.size() == chunkSize) {
+                    stopped = !importChunk(chunk, ordered, result);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading the import failed at line " + (lineNumber + 1), e);
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, ordered, result);
+        }
+        result.getErrors().sort(Comparator.comparingLong(TaskImportError::getLine));
+        
+        logger.info("Imported {} of {} tasks ({} failed, {} skipped)",
+            result.getImported(), result.getLines(), result.getFailed(), result.getSkipped());
+        return result;
+    }
+    
+    /**
+     * Validates a chunk in parallel and inserts its valid tasks with one bulk write.
+     * @return false if an ordered import has to stop
+     */
+    private boolean importChunk(List<ImportLine> chunk, boolean ordered, TaskImportResult result) {
+        List<Callable<ImportLine>> validations = new ArrayList<>(chunk.size());
+        chunk.forEach(line -> validations.add(() -> validate(line)));
+        try {
+            importPool.invokeAll(validations);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Task import was interrupted", e);
+        }
+        
+        // In ordered mode nothing after the first invalid line is attempted
+        List<ImportLine> valid = new ArrayList<>(chunk.size());
+        ImportLine firstInvalid = null;
+        int attempted = chunk.size();
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportLine line = chunk.get(i);
+            if (line.error == null) {
+                valid.add(line);
+            } else if (ordered) {
+                firstInvalid = line;
+                attempted = i + 1;
+                break;
+            } else {
+                fail(result, line);
+            }
+        }
+        
+        Map<Integer, String> writeErrors = taskRepository.insertAll(
+            valid.stream().map(line -> line.task).collect(Collectors.toList()), ordered);
+        
+        // An ordered bulk write stops at its first error
+        int firstWriteError = ordered && !writeErrors.isEmpty() ? writeErrors.keySet().iterator().next() : valid.size();
+        for (int i = 0; i < valid.size(); i++) {
+            ImportLine line = valid.get(i);
+            if (writeErrors.containsKey(i)) {
+                line.error = writeErrors.get(i);
+                fail(result, line);
+            } else if (i > firstWriteError) {
+                result.setSkipped(result.getSkipped() + 1);
+            } else {
+                result.setImported(result.getImported() + 1);
+                scheduler.register(line.task);
+            }
+        }
+        
+        if (!ordered) {
+            return true;
+        }
+        if (firstInvalid != null && writeErrors.isEmpty()) {
+            fail(result, firstInvalid);
+        } else if (firstInvalid != null) {
+            result.setSkipped(result.getSkipped() + 1);
+        }
+        result.setSkipped(result.getSkipped() + chunk.size() - attempted);
+        return firstInvalid == null && writeErrors.isEmpty();
+    }
+    
+    /**
+     * Parses and validates one line as createTask would; failures are recorded on the line.
+     */
+    private ImportLine validate(ImportLine line) {
+        try {
+            Task task = objectMapper.readValue(line.text, Task.class);
+            line.id = task.getId();
+            
+            Set<ConstraintViolation<Task>> violations = validator.validate(task);
+            if (!violations.isEmpty()) {
+                line.error = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+                return line;
+            }
+            commandValidator.validateCommand(task.getCommand());
+            scheduler.validateSchedule(task.getSchedule());
+            
+            task.setArgv(CommandTokenizer.tokenize(task.getCommand()));
+            if (task.getId() == null || task.getId().isBlank()) {
+                // Assigned here so the result can name the task of a failed write
+                task.setId(new ObjectId().toHexString());
+            }
+            line.task = task;
+        } catch (JsonProcessingException e) {
+            line.error = "Malformed task: " + e.getOriginalMessage();
+        } catch (InvalidCommandException | IllegalArgumentException e) {
+            line.error = e.getMessage();
+        }
+        return line;
+    }
+    
+    private static void fail(TaskImportResult result, ImportLine line) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add(new TaskImportError(line.number,
+            line.task != null ? line.task.getId() : line.id, line.error));
+    }
+    
+    /**
+     * One non-blank line of the body and the outcome of its validation.
+     */
+    private static class ImportLine {
+        
+        final long number;
+        final String text;
+        String id;
+        Task task;
+        String error;
+        
+        ImportLine(long number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.model.CatchUpPolicy;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.model.TaskSchedule;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process scheduler for tasks with a recurring schedule.
+ * Pending fire times live in a priority queue ordered by due time; a single
+ * dispatcher thread sleeps until the head is due, so the tick cost is one
+ * O(log n) poll per fire regardless of how many schedules exist.
+ * A schedule is out of the queue while its run is in progress, and a fire
+ * time that comes up while a run of the same task is still in flight (after
+ * the schedule was replaced) is skipped, so runs of a task never overlap;
+ * missed fire times are handled by its catch-up policy. Disabled by default;
+ * only enable it on one instance (taskmanager.scheduler.enabled).
+ */
+@Service
+public class TaskSchedulerService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskSchedulerService.class);
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private CommandExecutorService commandExecutor;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private CommandValidatorService commandValidator;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Value("${taskmanager.scheduler.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${taskmanager.scheduler.pool-size:4}")
+    private int poolSize;
+    
+    // A SKIP schedule still runs when it is at most this late
+    @Value("${taskmanager.scheduler.misfire-threshold-ms:1000}")
+    private long misfireThresholdMillis;
+    
+    // Current schedule per task; queue entries not in this map are stale and dropped
+    private final ConcurrentHashMap<String, ScheduledRun> schedules = new ConcurrentHashMap<>();
+    
+    // Tasks with a scheduled run in flight, whichever schedule entry started it
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    
+    private final PriorityQueue<ScheduledRun> queue = new PriorityQueue<>(
+        (a, b) -> Long.compare(a.fireAt, b.fireAt));
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition headChanged = lock.newCondition();
+    
+    private ExecutorService runPool;
+    private Thread dispatcher;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            logger.info("Task scheduler disabled");
+            return;
+        }
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        runPool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "task-schedule-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatchLoop, "task-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        
+        List<Task> tasks = taskRepository.findScheduled();
+        for (Task task : tasks) {
+            try {
+                register(task);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid schedule of task {}: {}", task.getId(), e.getMessage());
+            }
+        }
+        logger.info("Task scheduler started with {} schedules (pool size: {})", schedules.size(), poolSize);
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            runPool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Checks that a schedule is well-formed.
+     * @throws IllegalArgumentException if it is not
+     */
+    public void validateSchedule(TaskSchedule schedule) {
+        if (schedule == null) {
+            return;
+        }
+        boolean hasCron = schedule.getCron() != null;
+        boolean hasRate = schedule.getFixedRateSeconds() != null;
+        if (hasCron == hasRate) {
+            throw new IllegalArgumentException("A schedule needs exactly one of 'cron' or 'fixedRateSeconds'");
+        }
+        if (hasCron && !CronExpression.isValidExpression(schedule.getCron())) {
+            throw new IllegalArgumentException("Invalid cron expression: " + schedule.getCron());
+        }
+        if (hasRate && schedule.getFixedRateSeconds() < 1) {
+            throw new IllegalArgumentException("fixedRateSeconds must be at least 1");
+        }
+        if (schedule.getJitterSeconds() != null && schedule.getJitterSeconds() < 0) {
+            throw new IllegalArgumentException("jitterSeconds must not be negative");
+        }
+    }
+    
+    /**
+     * Starts, replaces or (when the task has no schedule) removes a task's schedule.
+     * The first fire time follows the last execution, so downtime is caught up
+     * according to the catch-up policy.
+     */
+    public void register(Task task) {
+        if (!enabled) {
+            return;
+        }
+        if (task.getSchedule() == null) {
+            unregister(task.getId());
+            return;
+        }
+        
+        ScheduledRun run = new ScheduledRun(task.getId(), task.getSchedule());
+        long now = System.currentTimeMillis();
+        long from = task.getLastExecutedAt() != null ? task.getLastExecutedAt().getTime() : now;
+        run.scheduledAt = run.nextAfter(from);
+        
+        schedules.put(task.getId(), run);
+        enqueue(run);
+        logger.info("Scheduled task {} (next run at {})", task.getId(), Instant.ofEpochMilli(run.scheduledAt));
+    }
+    
+    /**
+     * Removes a task's schedule; a run in progress finishes but is not rescheduled.
+     */
+    public void unregister(String taskId) {
+        if (schedules.remove(taskId) != null) {
+            logger.info("Unscheduled task {}", taskId);
+        }
+    }
+    
+    private boolean isCurrent(ScheduledRun run) {
+        return schedules.get(run.taskId) == run;
+    }
+    
+    private void enqueue(ScheduledRun run) {
+        run.fireAt = run.scheduledAt + run.jitter();
+        lock.lock();
+        try {
+            queue.add(run);
+            if (queue.peek() == run) {
+                headChanged.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ScheduledRun run;
+            try {
+                run = takeDue();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!isCurrent(run)) {
+                continue;
+            }
+            
+            long now = System.currentTimeMillis();
+            if (run.schedule.getCatchUp() == CatchUpPolicy.SKIP && now - run.scheduledAt > misfireThresholdMillis) {
+                logger.info("Skipping missed run of task {} scheduled at {}", run.taskId, Instant.ofEpochMilli(run.scheduledAt));
+                run.scheduledAt = run.nextAfter(now);
+                enqueue(run);
+                continue;
+            }
+            
+            try {
+                runPool.execute(() -> fire(run));
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+    
+    private ScheduledRun takeDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                ScheduledRun head = queue.peek();
+                if (head == null) {
+                    headChanged.await();
+                    continue;
+                }
+                long delay = head.fireAt - System.currentTimeMillis();
+                if (delay <= 0) {
+                    return queue.poll();
+                }
+                headChanged.await(delay, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Runs one scheduled execution, then queues the next fire time.
+     */
+    private void fire(ScheduledRun run) {
+        // A replaced schedule must not start a run while the previous one is still going
+        if (!running.add(run.taskId)) {
+            logger.info("Skipping run of task {} scheduled at {}: its previous run is still in progress",
+                run.taskId, Instant.ofEpochMilli(run.scheduledAt));
+            reschedule(run, false);
+            return;
+        }
+        try {
+            Optional<Task> task = taskCache.get(run.taskId);
+            if (task.isEmpty()) {
+                schedules.remove(run.taskId, run);
+                return;
+            }
+            commandValidator.checkCommand(task.get().getCommand());
+            execute(task.get());
+        } catch (InvalidCommandException e) {
+            logger.warn("Skipping scheduled run of task {}: {}", run.taskId, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Scheduled run of task {} could not be recorded", run.taskId, e);
+        } finally {
+            running.remove(run.taskId);
+            reschedule(run, run.schedule.getCatchUp() == CatchUpPolicy.FIRE_ALL);
+        }
+    }
+    
+    /**
+     * Queues the next fire time of a schedule that is still current.
+     * @param catchUp Whether to step through missed fire times (FIRE_ALL) instead of resuming from now
+     */
+    private void reschedule(ScheduledRun run, boolean catchUp) {
+        if (isCurrent(run)) {
+            long from = catchUp ? run.scheduledAt : Math.max(run.scheduledAt, System.currentTimeMillis());
+            run.scheduledAt = run.nextAfter(from);
+            enqueue(run);
+        }
+    }
+    
+    private void execute(Task task) {
+        logger.info("Running scheduled task {}", task.getId());
+        
+        TaskExecution execution = new TaskExecution();
+        execution.setTaskId(task.getId());
+        execution.setStartTime(new Date());
+        try {
+            CommandResult result = commandExecutor.executeCommand(task.getCommand(), task.getArgv(), null,
+                null, timeouts.resolve(task, null));
+            execution.setOutput(result.getOutput());
+            execution.setExitCode(result.getExitCode());
+            execution.setStatus(ExecutionStatus.COMPLETED);
+        } catch (CommandExecutionException e) {
+            logger.error("Scheduled execution of task {} failed: {}", task.getId(), e.getMessage());
+            execution.setOutput(e.getMessage());
+            execution.setStatus(ExecutionStatus.FAILED);
+        }
+        execution.setEndTime(new Date());
+        
+        taskExecutionRepository.insert(execution);
+        taskCache.recordExecution(task.getId(), execution.getEndTime());
+    }
+    
+    /**
+     * One task's schedule and its next nominal fire time. Fields are only
+     * touched by the thread that currently holds the entry (dispatcher or run).
+     */
+    private static final class ScheduledRun {
+        
+        final String taskId;
+        final TaskSchedule schedule;
+        final CronExpression cron;
+        volatile long scheduledAt;
+        volatile long fireAt;
+        
+        ScheduledRun(String taskId, TaskSchedule schedule) {
+            this.taskId = taskId;
+            this.schedule = schedule;
+            this.cron = schedule.getCron() != null ? CronExpression.parse(schedule.getCron()) : null;
+        }
+        
+        long nextAfter(long epochMillis) {
+            if (cron == null) {
+                return epochMillis + TimeUnit.SECONDS.toMillis(schedule.getFixedRateSeconds());
+            }
+            ZonedDateTime next = cron.next(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC));
+            // No future match (e.g. a date that never occurs): park it far in the future
+            return next != null ? next.toInstant().toEpochMilli() : Long.MAX_VALUE / 2;
+        }
+        
+        long jitter() {
+            Long jitterSeconds = schedule.getJitterSeconds();
+            if (jitterSeconds == null || jitterSeconds == 0) {
+                return 0;
+            }
+            return ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(jitterSeconds) + 1);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.repository.NameSearchTerms;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Startup backfill of the name search fields (nameLower, nameGrams) for
+ * task documents written before indexed search existed. A no-op once done.
+ */
+@Component
+public class TaskSearchFieldsMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchFieldsMigration.class);
+    private static final String TASKS_COLLECTION = "tasks";
+    private static final int BATCH_SIZE = 500;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        Query query = new Query(Criteria.where("nameLower").exists(false));
+        query.fields().include("name");
+        
+        int backfilled = 0;
+        BulkOperations batch = null;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, TASKS_COLLECTION)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (batch == null) {
+                    batch = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TASKS_COLLECTION);
+                }
+                String normalized = NameSearchTerms.normalize(document.getString("name"));
+                batch.updateOne(
+                    new Query(Criteria.where("_id").is(document.get("_id"))),
+                    new Update().set("nameLower", normalized).set("nameGrams", NameSearchTerms.grams(normalized))
+                );
+                if (++backfilled % BATCH_SIZE == 0) {
+                    batch.execute();
+                    batch = null;
+                }
+            }
+        }
+        if (batch != null) {
+            batch.execute();
+        }
+        
+        if (backfilled > 0) {
+            logger.info("Backfilled name search fields of {} tasks", backfilled);
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.exception.ExecutionNotFoundException;
 import com.example.taskmanager.exception.TaskNotFoundException;
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import com.example.taskmanager.model.ExecutionStatus;
 import com.example.taskmanager.model.Task;
 import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.model.TaskPage;
+import com.example.taskmanager.repository.ExecutionOutputStorage;
+import com.example.taskmanager.repository.ExecutionRollups;
+import com.example.taskmanager.repository.TaskExecutionRepository;
 import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Service layer for Task business logic.
@@ -24,14 +38,47 @@ public class TaskService {
     @Autowired
     private TaskRepository taskRepository;
     
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+    
     @Autowired
     private CommandValidatorService commandValidator;
     
     @Autowired
     private CommandExecutorService commandExecutor;
     
+    @Autowired
+    private ExecutionResultCache resultCache;
+    
+    @Autowired
+    private ExecutionTimeouts timeouts;
+    
+    @Autowired
+    private ExecutionMetrics metrics;
+    
+    @Autowired
+    private TaskSchedulerService scheduler;
+    
+    @Autowired
+    private TaskDefinitionCache taskCache;
+    
+    @Autowired
+    private ExecutionOutputStorage outputStorage;
+    
+    @Autowired
+    private ExecutionRollups rollups;
+    
+    // Task fields that may be requested through projection
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+        "id", "name", "owner", "command", "schedule", "executionCount", "lastExecutedAt");
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    // Number of most recent executions attached to single-task responses
+    @Value("${taskmanager.history.inline-limit:50}")
+    private int historyInlineLimit;
+    
     /**
-     * Get all tasks from the database.
+     * Get all tasks from the database (metadata only, no execution history).
      */
     public List<Task> getAllTasks() {
         logger.info("Fetching all tasks");
@@ -39,12 +86,92 @@ public class TaskService {
     }
     
     /**
-     * Get a task by ID.
+     * Get a page of tasks using keyset pagination on _id.
+     * 
+     * @param after Cursor from the previous page, or null for the first page
+     * @param limit Page size (1 to 1000)
+     * @param fields Fields to include, or empty for all fields
+     */
+    public TaskPage getTaskPage(String after, int limit, List<String> fields) {
+        logger.info("Fetching task page after: {}, limit: {}, fields: {}", after, limit, fields);
+        
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        List<Task> tasks = taskRepository.findPage(after, limit, checkProjection(fields));
+        String nextCursor = tasks.size() == limit ? tasks.get(tasks.size() - 1).getId() : null;
+        tasks.forEach(task -> stripUnrequestedFields(task, fields));
+        return new TaskPage(tasks, nextCursor);
+    }
+    
+    /**
+     * Stream all tasks from a database cursor without materializing a list.
+     * The caller must close the returned stream.
+     * 
+     * @param fields Fields to include, or empty for all fields
+     */
+    public Stream<Task> streamAllTasks(List<String> fields) {
+        logger.info("Streaming all tasks, fields: {}", fields);
+        return taskRepository.streamAll(checkProjection(fields))
+            .map(task -> stripUnrequestedFields(task, fields));
+    }
+    
+    private List<String> checkProjection(List<String> fields) {
+        for (String field : fields) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException(
+                    "Unknown field '" + field + "'. Allowed fields: " + String.join(", ", PROJECTABLE_FIELDS));
+            }
+        }
+        return fields;
+    }
+    
+    /**
+     * Mongo always returns _id, and history is never part of list responses.
+     */
+    private Task stripUnrequestedFields(Task task, List<String> fields) {
+        if (!fields.isEmpty() && !fields.contains("id")) {
+            task.setId(null);
+        }
+        task.setTaskExecutions(null);
+        return task;
+    }
+    
+    /**
+     * Get a task by ID, with its most recent executions attached.
      */
     public Task getTaskById(String id) {
         logger.info("Fetching task with id: {}", id);
-        return taskRepository.findById(id)
+        Task task = taskCache.get(id)
             .orElseThrow(() -> new TaskNotFoundException(id));
+        return attachRecentExecutions(task);
+    }
+    
+    /**
+     * Get a page of a task's execution history, most recent first.
+     * @param includeOutput Whether to load outputs stored compressed or in GridFS
+     */
+    public List<TaskExecution> getTaskExecutions(String id, int page, int size, boolean includeOutput) {
+        logger.info("Fetching executions for task: {} (page {}, size {}, output: {})", id, page, size, includeOutput);
+        
+        if (!taskCache.exists(id)) {
+            throw new TaskNotFoundException(id);
+        }
+        
+        PageRequest pageRequest = PageRequest.of(page, size);
+        return includeOutput
+            ? taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(id, pageRequest)
+            : taskExecutionRepository.findSummariesByTaskId(id, pageRequest);
+    }
+    
+    /**
+     * Get a single execution of a task (used to poll asynchronous runs).
+     */
+    public TaskExecution getTaskExecution(String id, String executionId) {
+        logger.info("Fetching execution {} of task: {}", executionId, id);
+        return taskExecutionRepository.findByIdAndTaskId(executionId, id)
+            .orElseThrow(() -> new ExecutionNotFoundException(id, executionId));
     }
     
     /**
@@ -55,13 +182,19 @@ public class TaskService {
         
         // Validate command for security
         commandValidator.validateCommand(task.getCommand());
+        scheduler.validateSchedule(task.getSchedule());
         
-        // Initialize taskExecutions list if null
-        if (task.getTaskExecutions() == null) {
-            task.setTaskExecutions(new java.util.ArrayList<>());
-        }
+        // Parsed once here instead of on every execution
+        task.setArgv(CommandTokenizer.tokenize(task.getCommand()));
         
-        return taskRepository.save(task);
+        // History is not part of the task document
+        task.setTaskExecutions(new ArrayList<>());
+        
+        Task savedTask = taskRepository.save(task);
+        taskCache.put(savedTask);
+        resultCache.invalidate(savedTask.getId());
+        scheduler.register(savedTask);
+        return savedTask;
     }
     
     /**
@@ -70,19 +203,36 @@ public class TaskService {
     public void deleteTask(String id) {
         logger.info("Deleting task with id: {}", id);
         
-        if (!taskRepository.existsById(id)) {
+        if (!taskCache.exists(id)) {
             throw new TaskNotFoundException(id);
         }
         
         taskRepository.deleteById(id);
+        taskCache.invalidate(id);
+        taskExecutionRepository.deleteByTaskId(id);
+        outputStorage.deleteSpills(id);
+        rollups.delete(id);
+        resultCache.invalidate(id);
+        scheduler.unregister(id);
     }
     
     /**
-     * Find tasks by name (case-insensitive partial match).
+     * Find tasks by name using the indexed search fields (case-insensitive).
+     * 
+     * @param name The search string, matched literally
+     * @param prefixOnly true for names starting with the string, false for names containing it
+     * @param page Page number (0-based)
+     * @param size Page size (1 to 1000)
      */
-    public List<Task> findTasksByName(String name) {
-        logger.info("Finding tasks with name containing: {}", name);
-        List<Task> tasks = taskRepository.findByNameContaining(name);
+    public List<Task> findTasksByName(String name, boolean prefixOnly, int page, int size) {
+        logger.info("Finding tasks with name {}: {} (page {}, size {})",
+            prefixOnly ? "starting with" : "containing", name, page, size);
+        
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        List<Task> tasks = taskRepository.searchByName(name, prefixOnly, page, size);
         
         if (tasks.isEmpty()) {
             throw new TaskNotFoundException("No tasks found with name containing: " + name);
@@ -93,29 +243,65 @@ public class TaskService {
     
     /**
      * Execute a task and store the execution result.
+     * Tasks with resultCacheSeconds set reuse a recent result instead of re-running.
+     * @param timeoutSeconds Timeout of this run, or null for the task's
      */
-    public Task executeTask(String id) {
+    public Task executeTask(String id, Integer timeoutSeconds) {
         logger.info("Executing task with id: {}", id);
         
-        // Get the task
-        Task task = getTaskById(id);
+        // Get the task definition (served from memory for hot tasks)
+        Timer.Sample load = metrics.startStage();
+        Task task = taskCache.get(id)
+            .orElseThrow(() -> new TaskNotFoundException(id));
+        metrics.recordStage(load, ExecutionMetrics.STAGE_LOAD, task.getCommand());
+        
+        // The allowlist may have changed since the task was created
+        commandValidator.checkCommand(task.getCommand());
+        int timeout = timeouts.resolve(task, timeoutSeconds);
         
+        resultCache.getOrExecute(task, () -> runAndRecord(task, timeout));
+        
+        return attachRecentExecutions(task);
+    }
+    
+    /**
+     * Run a task's command and append the execution to its history.
+     */
+    private TaskExecution runAndRecord(Task task, int timeoutSeconds) {
         // Record start time
         Date startTime = new Date();
         
         // Execute the command
-        String output = commandExecutor.executeCommand(task.getCommand());
+        CommandResult result = commandExecutor.executeCommand(task.getCommand(), task.getArgv(), null, null, timeoutSeconds);
         
         // Record end time
         Date endTime = new Date();
         
         // Create execution record
-        TaskExecution execution = new TaskExecution(startTime, endTime, output);
-        
-        // Add to task's execution history
-        task.getTaskExecutions().add(execution);
+        TaskExecution execution = new TaskExecution();
+        execution.setTaskId(task.getId());
+        execution.setStartTime(startTime);
+        execution.setEndTime(endTime);
+        execution.setOutput(result.getOutput());
+        execution.setExitCode(result.getExitCode());
+        execution.setStatus(ExecutionStatus.COMPLETED);
         
-        // Save updated task
-        return taskRepository.save(task);
+        // Append to execution history (single insert, task document untouched)
+        Timer.Sample save = metrics.startStage();
+        TaskExecution saved = taskExecutionRepository.insert(execution);
+        taskCache.recordExecution(task.getId(), endTime);
+        metrics.recordStage(save, ExecutionMetrics.STAGE_SAVE, task.getCommand());
+        return saved;
+    }
+    
+    /**
+     * Attach the most recent executions to a task, oldest first.
+     */
+    private Task attachRecentExecutions(Task task) {
+        List<TaskExecution> executions = new ArrayList<>(
+            taskExecutionRepository.findSummariesByTaskId(task.getId(), PageRequest.of(0, historyInlineLimit)));
+        Collections.reverse(executions);
+        task.setTaskExecutions(executions);
+        return task;
     }
 }
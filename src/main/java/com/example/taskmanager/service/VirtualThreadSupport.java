@@ -0,0 +1,49 @@
+package com.example.taskmanager.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to Java 21 virtual threads from code compiled for Java 17.
+ * Looks up Executors.newVirtualThreadPerTaskExecutor() reflectively so the
+ * virtual-thread execution mode can be switched on where the runtime supports it.
+ */
+final class VirtualThreadSupport {
+    
+    private static final Method NEW_VIRTUAL_EXECUTOR = lookupFactory();
+    
+    private VirtualThreadSupport() {
+    }
+    
+    /**
+     * @return true if the running JVM provides virtual threads
+     */
+    static boolean isAvailable() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+    
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     * @throws IllegalStateException if the JVM has no virtual thread support
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_EXECUTOR == null) {
+            throw new IllegalStateException(
+                "Virtual threads require Java 21+, running on " + Runtime.version());
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+    
+    private static Method lookupFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
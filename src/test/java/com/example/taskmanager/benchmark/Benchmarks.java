@@ -0,0 +1,165 @@
+package com.example.taskmanager.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal benchmark harness for the opt-in benchmark tests
+ * (run with -Dbenchmarks=true). Operations are timed in batches after a
+ * warm-up; each suite writes target/benchmarks/{suite}.csv and, when
+ * src/test/resources/benchmarks/{suite}.csv exists, prints the change
+ * against that baseline. Copy a report there to make it the new baseline.
+ */
+final class Benchmarks {
+
+	static final String ENABLED_PROPERTY = "benchmarks";
+
+	private static final Path REPORT_DIR = Paths.get("target", "benchmarks");
+	private static final Path BASELINE_DIR = Paths.get(
+		System.getProperty("benchmarks.baseline.dir", "src/test/resources/benchmarks"));
+	private static final String HEADER = "name,ops_per_sec,p50_ns,p99_ns,samples";
+
+	// Keeps results observable so the JIT cannot drop the measured work
+	static volatile Object sink;
+
+	private final String suite;
+	private final List<Result> results = new ArrayList<>();
+
+	Benchmarks(String suite) {
+		this.suite = suite;
+	}
+
+	/**
+	 * Times an operation in samples of batchSize calls; reported latencies are per call.
+	 */
+	Result measure(String name, int batchSize, Runnable operation) {
+		int warmupSamples = Integer.getInteger("benchmarks.warmup", 200);
+		int samples = Integer.getInteger("benchmarks.samples", 1000);
+
+		for (int i = 0; i < warmupSamples * batchSize; i++) {
+			operation.run();
+		}
+
+		long[] nanosPerCall = new long[samples];
+		long totalNanos = 0;
+		for (int s = 0; s < samples; s++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < batchSize; i++) {
+				operation.run();
+			}
+			long elapsed = System.nanoTime() - start;
+			totalNanos += elapsed;
+			nanosPerCall[s] = elapsed / batchSize;
+		}
+		return record(name, nanosPerCall, (long) samples * batchSize, totalNanos);
+	}
+
+	/**
+	 * Records latencies measured elsewhere (e.g. by concurrent load generators).
+	 */
+	Result record(String name, long[] latencyNanos, long operations, long elapsedNanos) {
+		long[] sorted = latencyNanos.clone();
+		Arrays.sort(sorted);
+		Result result = new Result(name,
+			elapsedNanos == 0 ? 0 : operations * 1_000_000_000d / elapsedNanos,
+			percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.length);
+		results.add(result);
+		System.out.printf(Locale.ROOT, "[%s] %-40s %12.0f ops/s  p50 %10d ns  p99 %10d ns%n",
+			suite, name, result.opsPerSecond, result.p50Nanos, result.p99Nanos);
+		return result;
+	}
+
+	/**
+	 * Writes the suite report and prints the comparison with the baseline, if any.
+	 */
+	void writeReport() {
+		StringBuilder csv = new StringBuilder(HEADER).append('\n');
+		for (Result result : results) {
+			csv.append(result.toCsv()).append('\n');
+		}
+		try {
+			Files.createDirectories(REPORT_DIR);
+			Files.writeString(REPORT_DIR.resolve(suite + ".csv"), csv);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		Map<String, Result> baseline = readBaseline();
+		for (Result result : results) {
+			Result before = baseline.get(result.name);
+			if (before != null) {
+				System.out.printf(Locale.ROOT, "[%s] %-40s ops/s %+6.1f%%  p99 %+6.1f%% vs baseline%n",
+					suite, result.name,
+					change(before.opsPerSecond, result.opsPerSecond),
+					change(before.p99Nanos, result.p99Nanos));
+			}
+		}
+	}
+
+	private Map<String, Result> readBaseline() {
+		Map<String, Result> baseline = new LinkedHashMap<>();
+		Path file = BASELINE_DIR.resolve(suite + ".csv");
+		if (!Files.exists(file)) {
+			return baseline;
+		}
+		try {
+			for (String line : Files.readAllLines(file)) {
+				if (!line.isBlank() && !line.equals(HEADER)) {
+					Result result = Result.fromCsv(line);
+					baseline.put(result.name, result);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return baseline;
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(quantile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	private static double change(double before, double after) {
+		return before == 0 ? 0 : (after - before) * 100 / before;
+	}
+
+	static final class Result {
+
+		final String name;
+		final double opsPerSecond;
+		final long p50Nanos;
+		final long p99Nanos;
+		final int samples;
+
+		Result(String name, double opsPerSecond, long p50Nanos, long p99Nanos, int samples) {
+			this.name = name;
+			this.opsPerSecond = opsPerSecond;
+			this.p50Nanos = p50Nanos;
+			this.p99Nanos = p99Nanos;
+			this.samples = samples;
+		}
+
+		String toCsv() {
+			return String.format(Locale.ROOT, "%s,%.1f,%d,%d,%d", name, opsPerSecond, p50Nanos, p99Nanos, samples);
+		}
+
+		static Result fromCsv(String line) {
+			String[] columns = line.split(",");
+			return new Result(columns[0], Double.parseDouble(columns[1]),
+				Long.parseLong(columns[2]), Long.parseLong(columns[3]), Integer.parseInt(columns[4]));
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.model.UtcTimestamps;
+import com.example.taskmanager.service.CommandValidatorService;
+import com.example.taskmanager.service.OutputCapture;
+import com.example.taskmanager.service.ReferenceCommandValidator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.DateSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Microbenchmarks of the per-execution hot spots: command validation,
+ * output capture and JSON serialization of tasks and executions
+ * (including large histories, before and after the timestamp fast path).
+ */
+@EnabledIfSystemProperty(named = Benchmarks.ENABLED_PROPERTY, matches = "true")
+class CoreBenchmarksTest {
+
+	private static final Benchmarks benchmarks = new Benchmarks("core");
+
+	// Configured like the application's mapper: timestamps as text
+	private final ObjectMapper objectMapper = new ObjectMapper()
+		.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@AfterAll
+	static void writeReport() {
+		benchmarks.writeReport();
+	}
+
+	/**
+	 * The single-pass validator against the original regex-based one
+	 * (validator.legacy.* rows) on the same accepted and rejected commands.
+	 */
+	@Test
+	void commandValidation() {
+		CommandValidatorService validator = new CommandValidatorService();
+
+		benchmarks.measure("validator.legacy.accept", 1000,
+			() -> ReferenceCommandValidator.validateCommand("ls -la /var/log/app_dir"));
+		benchmarks.measure("validator.legacy.reject", 1000,
+			() -> rejected(() -> ReferenceCommandValidator.validateCommand("echo hello; rm -rf /")));
+		benchmarks.measure("validator.legacy.reject-arguments", 1000,
+			() -> rejected(() -> ReferenceCommandValidator.validateCommand("ls -la /var/log/app*")));
+
+		benchmarks.measure("validator.accept", 1000, () -> validator.validateCommand("ls -la /var/log/app_dir"));
+		benchmarks.measure("validator.reject", 1000, () -> rejected(() -> validator.validateCommand("echo hello; rm -rf /")));
+		benchmarks.measure("validator.reject-arguments", 1000,
+			() -> rejected(() -> validator.validateCommand("ls -la /var/log/app*")));
+		benchmarks.measure("validator.cached-check", 1000, () -> validator.checkCommand("ls -la /var/log/app_dir"));
+	}
+
+	private static void rejected(Runnable validation) {
+		try {
+			validation.run();
+		} catch (InvalidCommandException e) {
+			Benchmarks.sink = e;
+		}
+	}
+
+	@Test
+	void outputCapture() {
+		byte[] chunk = "0123456789abcdef".repeat(512).getBytes(StandardCharsets.UTF_8);
+
+		benchmarks.measure("capture.small-output", 100, () -> {
+			OutputCapture capture = new OutputCapture(1 << 20);
+			capture.write(chunk, 0, 64);
+			Benchmarks.sink = capture.toOutputString();
+		});
+		benchmarks.measure("capture.4mb-into-1mb", 1, () -> {
+			OutputCapture capture = new OutputCapture(1 << 20);
+			for (int i = 0; i < 512; i++) {
+				capture.write(chunk, 0, chunk.length);
+			}
+			Benchmarks.sink = capture.toOutputString();
+		});
+	}
+
+	@Test
+	void jsonSerialization() {
+		Task task = sampleTask(0);
+		Task taskWithHistory = sampleTask(50);
+
+		benchmarks.measure("json.task", 1000, () -> Benchmarks.sink = toJson(task));
+		benchmarks.measure("json.task-with-50-executions", 10, () -> Benchmarks.sink = toJson(taskWithHistory));
+		benchmarks.measure("json.execution", 1000, () -> Benchmarks.sink = toJson(taskWithHistory.getTaskExecutions().get(0)));
+	}
+
+	/**
+	 * A large history through the serializer variants; optional formats and
+	 * modules are measured when their artifacts are on the test classpath.
+	 */
+	@Test
+	void jsonLargeHistory() {
+		Task task = sampleTask(500);
+
+		// The @JsonFormat(pattern) path the models used before @UtcTimestamp
+		ObjectMapper patternFormat = new ObjectMapper()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.addMixIn(Task.class, PatternFormatTask.class)
+			.addMixIn(TaskExecution.class, PatternFormatExecution.class);
+		ObjectMapper epochMillis = new ObjectMapper()
+			.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+		benchmarks.measure("json.history-500.pattern-format", 10, () -> Benchmarks.sink = toJson(patternFormat, task));
+		benchmarks.measure("json.history-500", 10, () -> Benchmarks.sink = toJson(objectMapper, task));
+		benchmarks.measure("json.history-500.epoch-millis", 10, () -> Benchmarks.sink = toJson(epochMillis, task));
+
+		ObjectMapper blackbird = optionalMapper(null, "com.fasterxml.jackson.module.blackbird.BlackbirdModule");
+		if (blackbird != null) {
+			benchmarks.measure("json.history-500.blackbird", 10, () -> Benchmarks.sink = toJson(blackbird, task));
+		}
+		ObjectMapper smile = optionalMapper("com.fasterxml.jackson.dataformat.smile.SmileFactory", null);
+		if (smile != null) {
+			benchmarks.measure("json.history-500.smile", 10, () -> Benchmarks.sink = toJson(smile, task));
+		}
+		ObjectMapper cbor = optionalMapper("com.fasterxml.jackson.dataformat.cbor.CBORFactory", null);
+		if (cbor != null) {
+			benchmarks.measure("json.history-500.cbor", 10, () -> Benchmarks.sink = toJson(cbor, task));
+		}
+	}
+
+	private byte[] toJson(Object value) {
+		return toJson(objectMapper, value);
+	}
+
+	private static byte[] toJson(ObjectMapper mapper, Object value) {
+		try {
+			return mapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A text-timestamp mapper on the given factory and with the given module, or null if either is missing.
+	 */
+	private static ObjectMapper optionalMapper(String factoryClass, String moduleClass) {
+		try {
+			ObjectMapper mapper = factoryClass == null ? new ObjectMapper()
+				: new ObjectMapper((JsonFactory) Class.forName(factoryClass).getDeclaredConstructor().newInstance());
+			if (moduleClass != null) {
+				mapper.registerModule((Module) Class.forName(moduleClass).getDeclaredConstructor().newInstance());
+			}
+			return mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	abstract static class PatternFormatTask {
+
+		@JsonFormat(pattern = UtcTimestamps.PATTERN, timezone = "UTC")
+		@JsonSerialize(using = DateSerializer.class)
+		Date lastExecutedAt;
+	}
+
+	abstract static class PatternFormatExecution {
+
+		@JsonFormat(pattern = UtcTimestamps.PATTERN, timezone = "UTC")
+		@JsonSerialize(using = DateSerializer.class)
+		Date startTime;
+
+		@JsonFormat(pattern = UtcTimestamps.PATTERN, timezone = "UTC")
+		@JsonSerialize(using = DateSerializer.class)
+		Date endTime;
+	}
+
+	static Task sampleTask(int executions) {
+		Task task = new Task();
+		task.setId("65f1c0ffee0000000000" + String.format("%04d", executions));
+		task.setName("benchmark task");
+		task.setOwner("bench");
+		task.setCommand("echo hello world");
+		task.setExecutionCount((long) executions);
+		task.setLastExecutedAt(new Date());
+
+		List<TaskExecution> history = new ArrayList<>();
+		for (int i = 0; i < executions; i++) {
+			TaskExecution execution = new TaskExecution();
+			execution.setId("65f1c0ffee00000000" + String.format("%06d", i));
+			execution.setTaskId(task.getId());
+			execution.setStartTime(new Date());
+			execution.setEndTime(new Date());
+			execution.setOutput("hello world\n".repeat(20));
+			execution.setStatus(ExecutionStatus.COMPLETED);
+			history.add(execution);
+		}
+		task.setTaskExecutions(history);
+		return task;
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.metrics.ExecutionMetrics;
+import com.example.taskmanager.service.CommandExecutorService;
+import com.example.taskmanager.service.ExecutionTimeouts;
+import com.example.taskmanager.service.RunningExecutions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Execution throughput and latency with many runs in flight, per threading
+ * mode (taskmanager.execution.virtual-threads): the default platform pool
+ * (max-size 16), one platform thread per run, and one virtual thread per run
+ * with virtual drain threads. Latency is submit to result, so it includes
+ * waiting for a worker. The virtual row is skipped on JVMs without virtual
+ * threads. Tune with benchmarks.execution.runs and benchmarks.execution.command.
+ */
+@EnabledIfSystemProperty(named = Benchmarks.ENABLED_PROPERTY, matches = "true")
+class ExecutionBenchmarksTest {
+
+	private static final Benchmarks benchmarks = new Benchmarks("execution");
+	private static final int PLATFORM_POOL_SIZE = 16;
+	private static final int TIMEOUT_SECONDS = 60;
+
+	@AfterAll
+	static void writeReport() {
+		benchmarks.writeReport();
+	}
+
+	@Test
+	void manyRunsInFlightPerThreadingMode() throws Exception {
+		int runs = Integer.getInteger("benchmarks.execution.runs", 1000);
+		String command = System.getProperty("benchmarks.execution.command", "sleep 0.1");
+
+		measure("execution.platform-pool-" + PLATFORM_POOL_SIZE, false,
+			Executors.newFixedThreadPool(PLATFORM_POOL_SIZE), command, runs);
+		measure("execution.platform-per-run", false, Executors.newCachedThreadPool(), command, runs);
+
+		ExecutorService virtualCallers = newVirtualThreadPerTaskExecutor();
+		if (virtualCallers == null) {
+			System.out.printf("[execution] virtual threads skipped: not supported by %s%n", Runtime.version());
+			return;
+		}
+		measure("execution.virtual-per-run", true, virtualCallers, command, runs);
+	}
+
+	private static void measure(String name, boolean virtualThreads, ExecutorService callers, String command, int runs)
+			throws Exception {
+		RunningExecutions runningExecutions = new RunningExecutions();
+		ReflectionTestUtils.setField(runningExecutions, "killGraceMillis", 2000L);
+		ReflectionTestUtils.invokeMethod(runningExecutions, "startWatchdog");
+		CommandExecutorService executor = executor(virtualThreads, runningExecutions);
+		try {
+			// Warm-up round, not recorded
+			runAll(executor, callers, command, Math.min(runs, 100));
+			long start = System.nanoTime();
+			long[] latencies = runAll(executor, callers, command, runs);
+			benchmarks.record(name, latencies, runs, System.nanoTime() - start);
+		} finally {
+			callers.shutdownNow();
+			ReflectionTestUtils.invokeMethod(executor, "stopOutputDrainers");
+			ReflectionTestUtils.invokeMethod(runningExecutions, "stopWatchdog");
+		}
+	}
+
+	private static long[] runAll(CommandExecutorService executor, ExecutorService callers, String command, int runs)
+			throws Exception {
+		long[] latencies = new long[runs];
+		List<Future<?>> pending = new ArrayList<>(runs);
+		for (int i = 0; i < runs; i++) {
+			int index = i;
+			long submitted = System.nanoTime();
+			pending.add(callers.submit(() -> {
+				Benchmarks.sink = executor.executeCommand(command, null, null, null, TIMEOUT_SECONDS);
+				latencies[index] = System.nanoTime() - submitted;
+			}));
+		}
+		for (Future<?> run : pending) {
+			run.get();
+		}
+		return latencies;
+	}
+
+	private static CommandExecutorService executor(boolean virtualThreads, RunningExecutions runningExecutions) {
+		ExecutionTimeouts timeouts = new ExecutionTimeouts();
+		ReflectionTestUtils.setField(timeouts, "defaultSeconds", TIMEOUT_SECONDS);
+		ReflectionTestUtils.setField(timeouts, "maxSeconds", TIMEOUT_SECONDS);
+
+		CommandExecutorService executor = new CommandExecutorService();
+		ReflectionTestUtils.setField(executor, "metrics", new ExecutionMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(executor, "observationRegistry", ObservationRegistry.NOOP);
+		ReflectionTestUtils.setField(executor, "runningExecutions", runningExecutions);
+		ReflectionTestUtils.setField(executor, "timeouts", timeouts);
+		ReflectionTestUtils.setField(executor, "virtualThreads", virtualThreads);
+		ReflectionTestUtils.setField(executor, "maxOutputBytes", 1 << 20);
+		ReflectionTestUtils.invokeMethod(executor, "startOutputDrainers");
+		return executor;
+	}
+
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor() on Java 21+, null before.
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
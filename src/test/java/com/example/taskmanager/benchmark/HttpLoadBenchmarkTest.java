@@ -0,0 +1,159 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.TaskmanagerApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * HTTP load scenario: concurrent clients run a create / search / execute mix
+ * against the full application on a random port, once on the default servlet
+ * stack and once under the "reactive" profile, so both land as rows of the
+ * same report (http.default.*, http.reactive.*). It uses the configured
+ * spring.data.mongodb.uri (an embedded Mongo when one is on the test
+ * classpath). Tune with benchmarks.http.concurrency and benchmarks.http.seconds.
+ */
+@EnabledIfSystemProperty(named = Benchmarks.ENABLED_PROPERTY, matches = "true")
+class HttpLoadBenchmarkTest {
+
+	private static final Benchmarks benchmarks = new Benchmarks("http");
+	private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+
+	private int port;
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	@AfterAll
+	static void writeReport() {
+		benchmarks.writeReport();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"default", "reactive"})
+	void createSearchExecuteMix(String profile) throws Exception {
+		try (ConfigurableApplicationContext context = start(profile)) {
+			port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+			runMix("http." + profile + ".");
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String profile) {
+		SpringApplicationBuilder application = new SpringApplicationBuilder(TaskmanagerApplication.class)
+			.properties("server.port=0");
+		if (!"default".equals(profile)) {
+			application.profiles(profile);
+		}
+		return application.run();
+	}
+
+	private void runMix(String prefix) throws Exception {
+		int concurrency = Integer.getInteger("benchmarks.http.concurrency", 32);
+		long durationNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("benchmarks.http.seconds", 30));
+
+		List<String> taskIds = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < concurrency; i++) {
+			taskIds.add(createTask());
+		}
+
+		Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		long start = System.nanoTime();
+		long deadline = start + durationNanos;
+		try {
+			List<Future<?>> runs = new ArrayList<>();
+			for (int c = 0; c < concurrency; c++) {
+				runs.add(clients.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						runOne(taskIds, latencies);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> run : runs) {
+				run.get();
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		long total = 0;
+		for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+			long[] values = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+			benchmarks.record(prefix + entry.getKey(), values, values.length, elapsed);
+			total += values.length;
+		}
+		benchmarks.record(prefix + "all", latencies.values().stream()
+			.flatMap(List::stream).mapToLong(Long::longValue).toArray(), total, elapsed);
+
+		for (String id : taskIds) {
+			send(HttpRequest.newBuilder(uri("/tasks/" + id)).DELETE().build());
+		}
+	}
+
+	private void runOne(List<String> taskIds, Map<String, List<Long>> latencies) throws Exception {
+		int roll = ThreadLocalRandom.current().nextInt(100);
+		long start = System.nanoTime();
+		String operation;
+		if (roll < 20) {
+			operation = "create";
+			taskIds.add(createTask());
+		} else if (roll < 70) {
+			operation = "search";
+			send(HttpRequest.newBuilder(uri("/tasks/search?name=load&mode=prefix&size=20")).GET().build());
+		} else {
+			operation = "execute";
+			String id = taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()));
+			send(HttpRequest.newBuilder(uri("/tasks/" + id + "/execute"))
+				.PUT(HttpRequest.BodyPublishers.noBody()).build());
+		}
+		latencies.computeIfAbsent(operation, key -> Collections.synchronizedList(new ArrayList<>()))
+			.add(System.nanoTime() - start);
+	}
+
+	private String createTask() throws Exception {
+		String body = "{\"name\":\"load-" + ThreadLocalRandom.current().nextInt(1_000_000)
+			+ "\",\"owner\":\"load\",\"command\":\"echo load\"}";
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/tasks"))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(body))
+			.build());
+		assertEquals(201, response.statusCode());
+		Matcher id = ID.matcher(response.body());
+		id.find();
+		return id.group(1);
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws Exception {
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
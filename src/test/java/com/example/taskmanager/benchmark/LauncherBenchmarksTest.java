@@ -0,0 +1,100 @@
+package com.example.taskmanager.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spawn latency of short allowlisted commands per JDK process launch
+ * mechanism (taskmanager.execution.launch-mechanism). The mechanism is fixed
+ * once a JVM has started a process, so each one is timed in a child JVM that
+ * runs {@link #main}; compare the p50/p99 of the launch.{mechanism}.* rows.
+ * Mechanisms the platform does not support are skipped.
+ */
+@EnabledIfSystemProperty(named = Benchmarks.ENABLED_PROPERTY, matches = "true")
+class LauncherBenchmarksTest {
+
+	private static final Benchmarks benchmarks = new Benchmarks("launcher");
+	private static final List<String> COMMANDS = List.of("echo hello", "date", "hostname");
+
+	@AfterAll
+	static void writeReport() {
+		benchmarks.writeReport();
+	}
+
+	@Test
+	void spawnLatencyPerLaunchMechanism() throws Exception {
+		String mechanisms = System.getProperty("benchmarks.launch.mechanisms", "POSIX_SPAWN,VFORK,FORK");
+		int warmup = Integer.getInteger("benchmarks.warmup", 200);
+		int samples = Integer.getInteger("benchmarks.samples", 1000);
+
+		for (String mechanism : mechanisms.split(",")) {
+			List<String> command = new ArrayList<>(List.of(
+				Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+				"-Djdk.lang.Process.launchMechanism=" + mechanism,
+				"-cp", System.getProperty("java.class.path"),
+				LauncherBenchmarksTest.class.getName(),
+				String.valueOf(warmup), String.valueOf(samples)));
+			command.addAll(COMMANDS);
+
+			Process child = new ProcessBuilder(command).redirectErrorStream(true).start();
+			String report;
+			try (InputStream output = child.getInputStream()) {
+				report = new String(output.readAllBytes());
+			}
+			if (child.waitFor() != 0) {
+				System.out.printf("[launcher] %s skipped: %s%n", mechanism, report.lines().findFirst().orElse(""));
+				continue;
+			}
+			for (String line : report.split("\n")) {
+				// "<command>\t<elapsed ns>\t<latency ns>..." per command
+				String[] columns = line.split("\t");
+				long[] latencies = Arrays.stream(columns, 2, columns.length).mapToLong(Long::parseLong).toArray();
+				benchmarks.record("launch." + mechanism + "." + columns[0].split(" ")[0],
+					latencies, latencies.length, Long.parseLong(columns[1]));
+			}
+		}
+	}
+
+	/**
+	 * Child JVM entry point: times start-to-exit of each command, output drained.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int warmup = Integer.parseInt(args[0]);
+		int samples = Integer.parseInt(args[1]);
+		for (int c = 2; c < args.length; c++) {
+			List<String> argv = List.of(args[c].split(" "));
+			for (int i = 0; i < warmup; i++) {
+				spawn(argv);
+			}
+			StringBuilder line = new StringBuilder(args[c]);
+			long[] latencies = new long[samples];
+			long start = System.nanoTime();
+			for (int i = 0; i < samples; i++) {
+				long begin = System.nanoTime();
+				spawn(argv);
+				latencies[i] = System.nanoTime() - begin;
+			}
+			line.append('\t').append(System.nanoTime() - start);
+			for (long latency : latencies) {
+				line.append('\t').append(latency);
+			}
+			System.out.println(line);
+		}
+	}
+
+	private static void spawn(List<String> argv) throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(argv).redirectErrorStream(true).start();
+		try (InputStream input = process.getInputStream()) {
+			input.readAllBytes();
+		}
+		process.waitFor();
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.exception.InvalidCommandException;
+import com.example.taskmanager.service.CommandValidatorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runtime allowlist replacement: verdicts cached under the old allowlist
+ * must not let a removed command through.
+ */
+class AllowlistEndpointTest {
+
+	private final CommandValidatorService validator = new CommandValidatorService();
+	private final AllowlistEndpoint endpoint = new AllowlistEndpoint();
+
+	AllowlistEndpointTest() {
+		ReflectionTestUtils.setField(endpoint, "commandValidator", validator);
+	}
+
+	@Test
+	void reloadRejectsAPreviouslyCachedCommand() {
+		assertDoesNotThrow(() -> validator.checkCommand("ls -la"));
+		assertDoesNotThrow(() -> validator.checkCommand("ls -la"));
+		long version = validator.getAllowlistVersion();
+
+		endpoint.replace("echo, date");
+
+		assertEquals(version + 1, endpoint.allowlist().get("version"));
+		assertEquals(List.of("echo", "date"), endpoint.allowlist().get("commands"));
+		assertThrows(InvalidCommandException.class, () -> validator.checkCommand("ls -la"));
+		assertDoesNotThrow(() -> validator.checkCommand("echo hi"));
+	}
+
+	@Test
+	void emptyAllowlistIsRefused() {
+		long version = validator.getAllowlistVersion();
+
+		assertThrows(InvalidEndpointRequestException.class, () -> endpoint.replace(" , "));
+
+		assertEquals(version, validator.getAllowlistVersion());
+		assertDoesNotThrow(() -> validator.checkCommand("ls"));
+	}
+}
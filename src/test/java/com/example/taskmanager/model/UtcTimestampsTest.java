@@ -0,0 +1,60 @@
+package com.example.taskmanager.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The timestamp fast path must write exactly what the
+ * "yyyy-MM-dd HH:mm:ss.SSS'Z'" pattern wrote, and read it back.
+ */
+class UtcTimestampsTest {
+
+	private final ObjectMapper textMapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@Test
+	void formatsLikeThePattern() {
+		SimpleDateFormat pattern = new SimpleDateFormat(UtcTimestamps.PATTERN, Locale.ROOT);
+		pattern.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+		Random random = new Random(42);
+		long[] edges = {0, -1, 1, 951_782_400_000L, -12_219_292_800_001L, -12_219_292_800_000L,
+			253_402_300_799_999L, 253_402_300_800_000L, -62_135_596_800_001L};
+		for (int i = 0; i < 100_000; i++) {
+			long millis = i < edges.length ? edges[i] : random.nextLong() % 300_000_000_000_000L;
+			Date date = new Date(millis);
+			assertEquals(pattern.format(date), UtcTimestamps.format(date), "epoch millis " + millis);
+		}
+	}
+
+	@Test
+	void readsWhatItWrites() throws Exception {
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			TaskExecution execution = new TaskExecution();
+			execution.setStartTime(new Date(Math.floorMod(random.nextLong(), 250_000_000_000_000L)));
+
+			String json = textMapper.writeValueAsString(execution);
+			assertEquals(execution.getStartTime(), textMapper.readValue(json, TaskExecution.class).getStartTime(), json);
+		}
+	}
+
+	@Test
+	void writesEpochMillisWhenDatesAreTimestamps() throws Exception {
+		Task task = new Task();
+		task.setLastExecutedAt(new Date(1_700_000_000_123L));
+
+		ObjectMapper epochMapper = new ObjectMapper().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		assertEquals(1_700_000_000_123L, epochMapper.valueToTree(task).get("lastExecutedAt").longValue());
+		assertEquals("2023-11-14 22:13:20.123Z", textMapper.valueToTree(task).get("lastExecutedAt").textValue());
+		assertEquals(task.getLastExecutedAt(), textMapper.readValue("{\"lastExecutedAt\":1700000000123}", Task.class).getLastExecutedAt());
+	}
+}
@@ -0,0 +1,154 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.TaskExecution;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Work-queue leases: every queued execution is claimed by exactly one
+ * worker, and expired leases move to another worker.
+ */
+@SpringBootTest
+class ExecutionLeasesTest {
+
+	private static final String TASK_ID = "lease-test";
+	private static final long LEASE_MILLIS = 30_000;
+
+	@Autowired
+	private ExecutionLeases leases;
+
+	@Autowired
+	private TaskExecutionRepository taskExecutionRepository;
+
+	@AfterEach
+	void cleanUp() {
+		taskExecutionRepository.deleteByTaskId(TASK_ID);
+	}
+
+	@Test
+	void concurrentWorkersClaimEachExecutionOnce() throws Exception {
+		List<String> queued = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			queued.add(enqueue().getId());
+		}
+
+		Set<String> claimed = ConcurrentHashMap.newKeySet();
+		AtomicInteger duplicates = new AtomicInteger();
+		ExecutorService workers = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> runs = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				String workerId = "worker-" + i;
+				runs.add(workers.submit(() -> {
+					start.await();
+					Optional<TaskExecution> execution;
+					while ((execution = leases.claim(workerId, LEASE_MILLIS, 3)).isPresent()) {
+						if (!claimed.add(execution.get().getId())) {
+							duplicates.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> run : runs) {
+				run.get();
+			}
+		} finally {
+			workers.shutdownNow();
+		}
+
+		assertEquals(0, duplicates.get());
+		assertTrue(claimed.containsAll(queued));
+	}
+
+	@Test
+	void expiredLeaseMovesToAnotherWorker() {
+		String id = enqueue().getId();
+
+		TaskExecution first = leases.claim("worker-a", -1, 3).orElseThrow();
+		TaskExecution second = leases.claim("worker-b", LEASE_MILLIS, 3).orElseThrow();
+
+		assertEquals(id, second.getId());
+		assertEquals(2, second.getAttempts());
+		assertEquals(ExecutionStatus.RUNNING, second.getStatus());
+		assertFalse(leases.release(id, "worker-a", first.getAttempts()));
+		assertEquals(0, leases.renew("worker-a", List.of(id), LEASE_MILLIS));
+		assertTrue(leases.release(id, "worker-b", second.getAttempts()));
+	}
+
+	@Test
+	void releasedExecutionIsNotClaimedAgain() {
+		String id = enqueue().getId();
+		TaskExecution claimed = leases.claim("worker-a", LEASE_MILLIS, 3).orElseThrow();
+
+		assertTrue(leases.release(id, "worker-a", claimed.getAttempts()));
+
+		assertEquals(0, leases.renew("worker-a", List.of(id), LEASE_MILLIS));
+		assertTrue(leases.claim("worker-b", LEASE_MILLIS, 3).filter(execution -> execution.getId().equals(id)).isEmpty());
+	}
+
+	@Test
+	void executionFailsAfterItsLastAttempt() {
+		String id = enqueue().getId();
+		leases.claim("worker-a", -1, 1).orElseThrow();
+
+		assertTrue(leases.claim("worker-b", LEASE_MILLIS, 1).filter(execution -> execution.getId().equals(id)).isEmpty());
+		assertEquals(1, leases.failExhausted(1));
+		assertEquals(ExecutionStatus.FAILED, taskExecutionRepository.findById(id).orElseThrow().getStatus());
+	}
+
+	@Test
+	void abandonedPoolExecutionsOfANodeAreFailed() {
+		String running = poolExecution("node-a", ExecutionStatus.RUNNING).getId();
+		String queued = poolExecution("node-a", ExecutionStatus.QUEUED).getId();
+		String otherNode = poolExecution("node-b", ExecutionStatus.RUNNING).getId();
+		String leased = enqueue().getId();
+		leases.claim("node-a", LEASE_MILLIS, 3).orElseThrow();
+
+		assertEquals(2, leases.failAbandoned("node-a"));
+		assertEquals(ExecutionStatus.FAILED, taskExecutionRepository.findById(running).orElseThrow().getStatus());
+		assertEquals(ExecutionStatus.FAILED, taskExecutionRepository.findById(queued).orElseThrow().getStatus());
+		assertEquals(ExecutionStatus.RUNNING, taskExecutionRepository.findById(otherNode).orElseThrow().getStatus());
+		assertEquals(ExecutionStatus.RUNNING, taskExecutionRepository.findById(leased).orElseThrow().getStatus());
+	}
+
+	private TaskExecution poolExecution(String nodeId, ExecutionStatus status) {
+		TaskExecution execution = new TaskExecution();
+		execution.setId(new ObjectId().toHexString());
+		execution.setTaskId(TASK_ID);
+		execution.setStatus(status);
+		execution.setWorkerId(nodeId);
+		return taskExecutionRepository.insert(execution);
+	}
+
+	private TaskExecution enqueue() {
+		TaskExecution execution = new TaskExecution();
+		execution.setId(new ObjectId().toHexString());
+		execution.setTaskId(TASK_ID);
+		execution.setStatus(ExecutionStatus.QUEUED);
+		execution.setQueuedAt(new Date());
+		return taskExecutionRepository.insert(execution);
+	}
+}
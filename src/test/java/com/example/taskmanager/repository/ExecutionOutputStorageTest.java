@@ -0,0 +1,84 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.TaskExecution;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inline compression of execution output (GridFS spills are not reached here).
+ */
+class ExecutionOutputStorageTest {
+
+	private ExecutionOutputStorage storage;
+
+	@BeforeEach
+	void setUp() {
+		storage = new ExecutionOutputStorage();
+		ReflectionTestUtils.setField(storage, "compressAboveBytes", 4096);
+		ReflectionTestUtils.setField(storage, "gridFsAboveBytes", Integer.MAX_VALUE);
+	}
+
+	@Test
+	void smallOutputIsStoredAsText() {
+		Document document = save("hello world");
+
+		assertEquals("hello world", document.get("output"));
+		assertFalse(document.containsKey("outputDeflated"));
+	}
+
+	@Test
+	void largeOutputIsDeflatedAndInflatedOnFirstRead() {
+		String output = "drwxr-xr-x  2 root root 4096 Jan  1 00:00 dir\n".repeat(1000);
+		Document document = save(output);
+
+		assertFalse(document.containsKey("output"));
+		byte[] deflated = document.get("outputDeflated", Binary.class).getData();
+		assertTrue(deflated.length < output.length() / 10, "compressed to " + deflated.length + " bytes");
+
+		TaskExecution read = new TaskExecution();
+		storage.onAfterConvert(read, document, "task_executions");
+		assertEquals(output, read.getOutput());
+	}
+
+	@Test
+	void negativeThresholdDisablesCompression() {
+		ReflectionTestUtils.setField(storage, "compressAboveBytes", -1);
+		String output = "line\n".repeat(5000);
+
+		Document document = save(output);
+
+		assertEquals(output, document.get("output"));
+		assertNull(document.get("outputDeflated"));
+	}
+
+	@Test
+	void readExecutionKeepsItsOutputWhenSavedAgain() {
+		String output = "line\n".repeat(5000);
+		TaskExecution read = new TaskExecution();
+		storage.onAfterConvert(read, save(output), "task_executions");
+
+		// Mapping reads the raw field, which is still empty until the output is loaded
+		Document resaved = new Document();
+		storage.onBeforeSave(read, resaved, "task_executions");
+		TaskExecution again = new TaskExecution();
+		storage.onAfterConvert(again, resaved, "task_executions");
+		assertEquals(output, again.getOutput());
+	}
+
+	private Document save(String output) {
+		TaskExecution execution = new TaskExecution();
+		execution.setTaskId("task-1");
+		execution.setOutput(output);
+		Document document = new Document("taskId", "task-1").append("output", output);
+		storage.onBeforeSave(execution, document, "task_executions");
+		return document;
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.model.ExecutionStats;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Duration histogram of the rollups and the percentiles estimated from it.
+ */
+class ExecutionRollupsTest {
+
+	@Test
+	void bucketsBoundDurationsWithinAQuarter() {
+		for (long duration = 0; duration < 1_000_000; duration++) {
+			long upperBound = ExecutionRollups.upperBoundOf(ExecutionRollups.bucketOf(duration));
+			assertTrue(upperBound >= duration && upperBound <= duration * 1.25 + 1,
+				"duration " + duration + " reported as " + upperBound);
+		}
+	}
+
+	@Test
+	void percentilesAreCloseToExactNearestRank() {
+		Random random = new Random(1);
+		long[] durations = new long[10_000];
+		Map<Integer, Long> histogram = new TreeMap<>();
+		for (int i = 0; i < durations.length; i++) {
+			durations[i] = (long) Math.exp(random.nextGaussian() * 1.5 + 4);
+			histogram.merge(ExecutionRollups.bucketOf(durations[i]), 1L, Long::sum);
+		}
+		Arrays.sort(durations);
+
+		for (double quantile : new double[] {0.50, 0.95, 0.99}) {
+			long exact = durations[(int) Math.ceil(quantile * durations.length) - 1];
+			long estimate = ExecutionRollups.percentile(histogram, durations.length, quantile, durations[durations.length - 1]);
+			assertTrue(estimate >= exact && estimate <= exact * 1.25 + 1, quantile + ": " + estimate + " vs " + exact);
+		}
+	}
+
+	@Test
+	void rollupDocumentBecomesStats() {
+		Document rollup = new Document("_id", "task-1")
+			.append("count", 4L)
+			.append("failed", 1L)
+			.append("durationMsSum", 40L)
+			.append("maxDurationMs", 20L)
+			.append("durationHistogram", new Document(String.valueOf(ExecutionRollups.bucketOf(5)), 3L)
+				.append(String.valueOf(ExecutionRollups.bucketOf(20)), 1L))
+			.append("exitCodes", new Document("0", 2L).append("2", 1L))
+			.append("outputRuns", 4L)
+			.append("outputBytesSum", 400L)
+			.append("maxOutputBytes", 250L);
+
+		ExecutionStats stats = ExecutionRollups.toStats(rollup);
+
+		assertEquals("task-1", stats.getTaskId());
+		assertEquals(ExecutionStats.SOURCE_ROLLUP, stats.getSource());
+		assertEquals(0.25, stats.getFailureRate());
+		assertEquals(10L, stats.getAvgDurationMs());
+		assertEquals(5L, stats.getP50DurationMs());
+		assertEquals(20L, stats.getP99DurationMs());
+		assertEquals(Map.of("0", 2L, "2", 1L), stats.getExitCodes());
+		assertEquals(100L, stats.getAvgOutputBytes());
+	}
+}
@@ -0,0 +1,40 @@
+package com.example.taskmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The tokenizer must split exactly like command.trim().split("\\s+"),
+ * which the executor used before argv was parsed at create time.
+ */
+class CommandTokenizerTest {
+
+	@Test
+	void splitsOnWhitespaceRuns() {
+		assertEquals(Arrays.asList("ls", "-la", "/tmp"), CommandTokenizer.tokenize("  ls \t-la\n\n/tmp  "));
+		assertEquals(Collections.emptyList(), CommandTokenizer.tokenize(" \t "));
+	}
+
+	@Test
+	void matchesRegexSplitOnRandomCommands() {
+		String alphabet = " \t\n\u000B\f\r\u0001\u0000\u001Fab-";
+		Random random = new Random(42);
+
+		for (int i = 0; i < 100_000; i++) {
+			StringBuilder command = new StringBuilder();
+			int length = random.nextInt(12);
+			for (int c = 0; c < length; c++) {
+				command.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			String trimmed = command.toString().trim();
+			List<String> expected = trimmed.isEmpty() ? Collections.emptyList() : Arrays.asList(trimmed.split("\\s+"));
+			assertEquals(expected, CommandTokenizer.tokenize(command.toString()), () -> "Tokens differ for [" + command + "]");
+		}
+	}
+}
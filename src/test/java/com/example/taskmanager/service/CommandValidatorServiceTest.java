@@ -0,0 +1,84 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.InvalidCommandException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the single-pass validator accepts and rejects exactly the same
+ * commands, with the same messages, as the original regex-based rules.
+ */
+class CommandValidatorServiceTest {
+
+	private final CommandValidatorService validator = new CommandValidatorService();
+
+	@Test
+	void matchesReferenceRulesOnKnownCases() {
+		String[] commands = {
+			null, "", "   ", "echo hello", "ECHO hello", "  ls -la /tmp", "ls; rm -rf /",
+			"echo a && echo b", "echo a || b", "echo a | wc", "echo `id`", "echo $HOME",
+			"echo (x)", "echo > f", "cat < f", "sleep 1 &", "echo a\\nb", "echo a\\rb",
+			"echo a\\tb", "rm -rf /", "ping -c 1 localhost", "echo hello\tworld",
+			"echo café", "echo a\u0001b", "\u0001echo hi", "      ls x", "ls\u0001",
+			"echo \u0001", "hostname\n", "du -sh ./src_dir"
+		};
+		for (String command : commands) {
+			assertSameVerdict(command);
+		}
+	}
+
+	@Test
+	void matchesReferenceRulesOnRandomCommands() {
+		String alphabet = " \t\n\u000B\f\r\u0001\u0000\u001Fabcehlost ECHOLS.-/_;&|`$()<>\\nrtx9é ";
+		String[] words = {"echo", "ls", "ECHO", "pwd", "ping", "hostname", "Ls", "  ", "\\n", "&&", "\u0001"};
+		Random random = new Random(42);
+
+		for (int i = 0; i < 200_000; i++) {
+			StringBuilder command = new StringBuilder();
+			int parts = random.nextInt(8);
+			for (int p = 0; p < parts; p++) {
+				if (random.nextBoolean()) {
+					command.append(words[random.nextInt(words.length)]);
+				} else {
+					command.append(alphabet.charAt(random.nextInt(alphabet.length())));
+				}
+			}
+			assertSameVerdict(command.toString());
+		}
+	}
+
+	@Test
+	void cachedVerdictsFollowAllowlistChanges() {
+		assertDoesNotThrow(() -> validator.checkCommand("echo hi"));
+		assertThrows(InvalidCommandException.class, () -> validator.checkCommand("uptime"));
+		long version = validator.getAllowlistVersion();
+
+		validator.setAllowedCommands(Arrays.asList("uptime"));
+
+		assertEquals(version + 1, validator.getAllowlistVersion());
+		assertThrows(InvalidCommandException.class, () -> validator.checkCommand("echo hi"));
+		assertDoesNotThrow(() -> validator.checkCommand("uptime"));
+		assertThrows(InvalidCommandException.class, () -> validator.checkCommand("uptime; ls"));
+	}
+
+	private void assertSameVerdict(String command) {
+		assertEquals(verdict(() -> ReferenceCommandValidator.validateCommand(command)),
+			verdict(() -> validator.validateCommand(command)),
+			() -> "Verdict differs for command: [" + command + "]");
+	}
+
+	private static String verdict(Runnable validation) {
+		try {
+			validation.run();
+			return "valid";
+		} catch (InvalidCommandException e) {
+			return e.getMessage();
+		}
+	}
+}
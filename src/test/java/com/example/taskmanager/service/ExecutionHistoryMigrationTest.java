@@ -0,0 +1,95 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Embedded history migration: every entry is moved exactly once, also when
+ * the migration runs again or resumes a task a crashed run had claimed.
+ */
+@SpringBootTest
+class ExecutionHistoryMigrationTest {
+
+	private static final String TASK_ID = "migration-test";
+
+	@Autowired
+	private ExecutionHistoryMigration migration;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private TaskExecutionRepository taskExecutionRepository;
+
+	@AfterEach
+	void cleanUp() {
+		mongoTemplate.remove(taskQuery(), "tasks");
+		taskExecutionRepository.deleteByTaskId(TASK_ID);
+	}
+
+	@Test
+	void repeatedRunsMoveTheHistoryOnce() {
+		insertTask("taskExecutions", 3);
+
+		migration.run(null);
+		migration.run(null);
+
+		assertEquals(3, taskExecutionRepository.countByTaskId(TASK_ID));
+		Document task = mongoTemplate.findOne(taskQuery(), Document.class, "tasks");
+		assertEquals(3L, ((Number) task.get("executionCount")).longValue());
+		assertFalse(task.containsKey("taskExecutions"));
+	}
+
+	@Test
+	void resumesATaskClaimedByACrashedRun() {
+		List<Document> history = insertTask("taskExecutionsMigrating", 3);
+		// The crashed run had already inserted the first entry
+		Document first = new Document("_id", new ObjectId(ExecutionHistoryMigration.executionId(
+			TASK_ID, 0, history.get(0).getDate("startTime"))))
+			.append("taskId", TASK_ID)
+			.append("status", "COMPLETED");
+		mongoTemplate.insert(first, "task_executions");
+
+		migration.run(null);
+
+		assertEquals(3, taskExecutionRepository.countByTaskId(TASK_ID));
+		Document task = mongoTemplate.findOne(taskQuery(), Document.class, "tasks");
+		assertEquals(3L, ((Number) task.get("executionCount")).longValue());
+		assertFalse(task.containsKey("taskExecutionsMigrating"));
+	}
+
+	private List<Document> insertTask(String field, int executions) {
+		List<Document> history = new ArrayList<>();
+		for (int i = 0; i < executions; i++) {
+			Date start = new Date(1_700_000_000_000L + i * 60_000L);
+			history.add(new Document("startTime", start)
+				.append("endTime", new Date(start.getTime() + 1000))
+				.append("output", "run " + i));
+		}
+		mongoTemplate.insert(new Document("_id", TASK_ID)
+			.append("name", TASK_ID)
+			.append("owner", "test")
+			.append("command", "echo migrated")
+			.append(field, history), "tasks");
+		return history;
+	}
+
+	private static Query taskQuery() {
+		return new Query(Criteria.where("_id").is(TASK_ID));
+	}
+}
@@ -0,0 +1,177 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.CommandExecutionException;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskExecution;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Result cache: freshness window, command changes, LRU bound and
+ * coalescing of concurrent executions into one supplier call.
+ */
+class ExecutionResultCacheTest {
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void servesTheCachedExecutionWithinItsWindowOnly() throws Exception {
+		ExecutionResultCache cache = new ExecutionResultCache(10);
+		Task task = task("a", "echo a", 1);
+
+		TaskExecution first = cache.getOrExecute(task, this::newExecution);
+		assertSame(first, cache.getOrExecute(task, this::newExecution));
+		assertEquals(1, calls.get());
+
+		Thread.sleep(1100);
+		assertNotSame(first, cache.getOrExecute(task, this::newExecution));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void changedCommandMisses() {
+		ExecutionResultCache cache = new ExecutionResultCache(10);
+		TaskExecution first = cache.getOrExecute(task("a", "echo a", 60), this::newExecution);
+
+		assertNotSame(first, cache.getOrExecute(task("a", "echo b", 60), this::newExecution));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void tasksWithoutAWindowAreNotCached() {
+		ExecutionResultCache cache = new ExecutionResultCache(10);
+		Task task = task("a", "echo a", null);
+
+		cache.getOrExecute(task, this::newExecution);
+		cache.getOrExecute(task, this::newExecution);
+
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntryAtMaxEntries() {
+		ExecutionResultCache cache = new ExecutionResultCache(2);
+		Task a = task("a", "echo a", 60);
+		Task b = task("b", "echo b", 60);
+		Task c = task("c", "echo c", 60);
+		TaskExecution cachedA = cache.getOrExecute(a, this::newExecution);
+		TaskExecution cachedB = cache.getOrExecute(b, this::newExecution);
+		// Touch a so b is the eldest when c comes in
+		cache.getOrExecute(a, this::newExecution);
+		cache.getOrExecute(c, this::newExecution);
+		assertEquals(3, calls.get());
+
+		assertSame(cachedA, cache.getOrExecute(a, this::newExecution));
+		assertNotSame(cachedB, cache.getOrExecute(b, this::newExecution));
+		assertEquals(4, calls.get());
+	}
+
+	@Test
+	void concurrentCallersShareOneExecution() throws Exception {
+		ExecutionResultCache cache = new ExecutionResultCache(10);
+		Task task = task("a", "echo a", 60);
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Object> results = runConcurrently(8, () -> cache.getOrExecute(task, () -> {
+			await(release);
+			return newExecution();
+		}), release);
+
+		assertEquals(1, calls.get());
+		assertEquals(8, results.size());
+		for (Object result : results) {
+			assertSame(results.get(0), result);
+		}
+	}
+
+	@Test
+	void concurrentCallersShareTheException() throws Exception {
+		ExecutionResultCache cache = new ExecutionResultCache(10);
+		Task task = task("a", "echo a", 60);
+		CountDownLatch release = new CountDownLatch(1);
+		CommandExecutionException failure = new CommandExecutionException("boom", null);
+
+		List<Object> results = runConcurrently(8, () -> cache.getOrExecute(task, () -> {
+			calls.incrementAndGet();
+			await(release);
+			throw failure;
+		}), release);
+
+		assertEquals(1, calls.get());
+		assertEquals(8, results.size());
+		for (Object result : results) {
+			assertSame(failure, result);
+		}
+		// Failures are not cached
+		assertThrows(CommandExecutionException.class, () -> cache.getOrExecute(task, () -> {
+			throw new CommandExecutionException("again", null);
+		}));
+	}
+
+	/**
+	 * Starts the callers, waits until all but the leader are blocked joining
+	 * its flight (the leader is blocked on the release latch), then releases.
+	 * @return What each caller returned or threw
+	 */
+	private static List<Object> runConcurrently(int callers, Supplier<TaskExecution> call, CountDownLatch release)
+			throws InterruptedException {
+		List<Object> results = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			Thread thread = new Thread(() -> {
+				try {
+					results.add(call.get());
+				} catch (RuntimeException e) {
+					results.add(e);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+			assertTrue(System.nanoTime() < deadline, "callers did not block");
+			Thread.sleep(5);
+		}
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join(5000);
+		}
+		return results;
+	}
+
+	private TaskExecution newExecution() {
+		calls.incrementAndGet();
+		return new TaskExecution();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Task task(String id, String command, Integer resultCacheSeconds) {
+		Task task = new Task();
+		task.setId(id);
+		task.setCommand(command);
+		task.setResultCacheSeconds(resultCacheSeconds);
+		return task;
+	}
+}
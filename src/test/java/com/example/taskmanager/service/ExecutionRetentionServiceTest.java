@@ -0,0 +1,150 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.ExecutionStatus;
+import com.example.taskmanager.model.TaskExecution;
+import com.example.taskmanager.repository.ExecutionOutputStorage;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retention rules on one task's history: keep-last-N, max age, and
+ * summaries that only cut successful runs other than the latest one.
+ */
+@SpringBootTest
+class ExecutionRetentionServiceTest {
+
+	private static final String TASK_ID = "retention-test";
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private ExecutionOutputStorage outputStorage;
+
+	@Autowired
+	private TaskExecutionRepository taskExecutionRepository;
+
+	private ExecutionRetentionService retention;
+
+	@BeforeEach
+	void setUp() {
+		retention = new ExecutionRetentionService();
+		ReflectionTestUtils.setField(retention, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(retention, "outputStorage", outputStorage);
+		ReflectionTestUtils.setField(retention, "summaryChars", -1);
+		ReflectionTestUtils.setField(retention, "batchSize", 2);
+		ReflectionTestUtils.setField(retention, "batchPauseMillis", 0L);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		taskExecutionRepository.deleteByTaskId(TASK_ID);
+	}
+
+	@Test
+	void keepsTheNewestMaxRuns() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 5; i++) {
+			save(ExecutionStatus.COMPLETED, 0, "run " + i, now - i * MINUTE);
+		}
+		TaskExecution queued = save(ExecutionStatus.QUEUED, null, null, now - 10 * MINUTE);
+		ReflectionTestUtils.setField(retention, "maxRuns", 3);
+
+		assertEquals(2L, compactTask());
+
+		List<TaskExecution> kept = taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(TASK_ID, PageRequest.of(0, 10));
+		assertEquals(Arrays.asList("run 0", "run 1", "run 2", null), kept.stream().map(TaskExecution::getOutput).toList());
+		assertEquals(queued.getId(), kept.get(3).getId());
+	}
+
+	@Test
+	void deletesRunsOlderThanMaxAgeButNeverTheLatest() {
+		long now = System.currentTimeMillis();
+		long day = TimeUnit.DAYS.toMillis(1);
+		save(ExecutionStatus.COMPLETED, 0, "recent", now - 2 * day);
+		save(ExecutionStatus.FAILED, null, "old failure", now - 3 * day);
+		save(ExecutionStatus.COMPLETED, 0, "old", now - 4 * day);
+		ReflectionTestUtils.setField(retention, "maxAgeDays", 1);
+
+		assertEquals(2L, compactTask());
+
+		List<TaskExecution> kept = taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(TASK_ID, PageRequest.of(0, 10));
+		assertEquals(1, kept.size());
+		assertEquals("recent", kept.get(0).getOutput());
+	}
+
+	@Test
+	void summariesCutSuccessfulRunsAndKeepFailures() {
+		long now = System.currentTimeMillis();
+		TaskExecution latest = save(ExecutionStatus.COMPLETED, 0, "latest output", now);
+		TaskExecution plain = save(ExecutionStatus.COMPLETED, 0, "héllo wörld", now - MINUTE);
+		TaskExecution stored = save(ExecutionStatus.COMPLETED, 0, "x".repeat(10_000), now - 2 * MINUTE);
+		TaskExecution failed = save(ExecutionStatus.FAILED, null, "failure output", now - 3 * MINUTE);
+		TaskExecution nonZero = save(ExecutionStatus.COMPLETED, 2, "exit 2 output", now - 4 * MINUTE);
+		ReflectionTestUtils.setField(retention, "summaryChars", 5);
+
+		assertEquals(2L, compactTask());
+
+		assertUnchanged(latest, "latest output");
+		assertUnchanged(failed, "failure output");
+		assertUnchanged(nonZero, "exit 2 output");
+
+		TaskExecution plainSummary = reload(plain);
+		assertEquals("héllo", plainSummary.getOutput());
+		assertEquals(6L, plainSummary.getOutputBytes());
+		assertTrue(plainSummary.getCompacted());
+
+		TaskExecution storedSummary = reload(stored);
+		assertEquals("xxxxx", storedSummary.getOutput());
+		assertEquals(5L, storedSummary.getOutputBytes());
+		assertTrue(storedSummary.getCompacted());
+
+		// Already compacted runs are left alone by the next pass
+		assertEquals(0L, compactTask());
+	}
+
+	private long compactTask() {
+		return ReflectionTestUtils.<Long>invokeMethod(retention, "compactTask", TASK_ID);
+	}
+
+	private void assertUnchanged(TaskExecution execution, String output) {
+		TaskExecution reloaded = reload(execution);
+		assertEquals(output, reloaded.getOutput());
+		assertEquals(execution.getOutputBytes(), reloaded.getOutputBytes());
+		assertNull(reloaded.getCompacted());
+	}
+
+	private TaskExecution reload(TaskExecution execution) {
+		return taskExecutionRepository.findById(execution.getId()).orElseThrow();
+	}
+
+	private TaskExecution save(ExecutionStatus status, Integer exitCode, String output, long startTime) {
+		TaskExecution execution = new TaskExecution();
+		execution.setTaskId(TASK_ID);
+		execution.setStatus(status);
+		execution.setExitCode(exitCode);
+		execution.setOutput(output);
+		execution.setStartTime(new Date(startTime));
+		if (status != ExecutionStatus.QUEUED) {
+			execution.setEndTime(new Date(startTime + 1000));
+		}
+		return taskExecutionRepository.save(execution);
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.taskmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCaptureTest {
+
+	@Test
+	void keepsEverythingWithinCap() {
+		OutputCapture capture = new OutputCapture(16);
+		write(capture, "hello ");
+		write(capture, "world");
+
+		assertFalse(capture.isTruncated());
+		assertEquals(11, capture.getTotalBytes());
+		assertEquals("hello world", capture.toOutputString());
+	}
+
+	@Test
+	void keepsHeadAndTailWhenOverCap() {
+		OutputCapture capture = new OutputCapture(8);
+		for (char c = 'a'; c <= 'z'; c++) {
+			write(capture, String.valueOf(c));
+		}
+
+		assertTrue(capture.isTruncated());
+		assertEquals(26, capture.getTotalBytes());
+		assertEquals("abcd\n... [18 bytes truncated] ...\nwxyz", capture.toOutputString());
+	}
+
+	@Test
+	void chunkLargerThanTailKeepsItsLastBytes() {
+		OutputCapture capture = new OutputCapture(4);
+		write(capture, "0123456789");
+
+		assertEquals("01\n... [6 bytes truncated] ...\n89", capture.toOutputString());
+	}
+
+	@Test
+	void buffersFollowTheOutputNotTheCap() {
+		OutputCapture capture = new OutputCapture(1024 * 1024);
+		write(capture, "hello");
+
+		assertTrue(((byte[]) ReflectionTestUtils.getField(capture, "head")).length < 1024);
+		assertNull(ReflectionTestUtils.getField(capture, "tail"));
+		assertEquals("hello", capture.toOutputString());
+	}
+
+	@Test
+	void headGrowsAcrossWritesUntilTheTailTakesOver() {
+		OutputCapture capture = new OutputCapture(2000);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			String line = String.format("line %04d%n", i);
+			write(capture, line);
+			expected.append(line);
+		}
+
+		assertFalse(capture.isTruncated());
+		assertEquals(expected.toString(), capture.toOutputString());
+		assertEquals(1000, ((byte[]) ReflectionTestUtils.getField(capture, "head")).length);
+	}
+
+	private static void write(OutputCapture capture, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		capture.write(bytes, 0, bytes.length);
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.exception.InvalidCommandException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The original multi-scan validator, kept as the behavioural reference for
+ * CommandValidatorServiceTest and the cost baseline for CoreBenchmarksTest.
+ */
+public final class ReferenceCommandValidator {
+
+	private static final List<String> DANGEROUS_CHARS = Arrays.asList(
+		";", "&&", "||", "|", "`", "$", "(", ")",
+		">", "<", "&", "\\n", "\\r", "\\t"
+	);
+
+	private static final List<String> ALLOWED_COMMANDS = Arrays.asList(
+		"echo", "ls", "pwd", "date", "whoami", "hostname",
+		"cat", "grep", "wc", "head", "tail", "df", "du", "ping"
+	);
+
+	private static final Pattern SAFE_ARG_PATTERN = Pattern.compile("^[a-zA-Z0-9\\s./_-]+$");
+
+	private ReferenceCommandValidator() {
+	}
+
+	public static void validateCommand(String command) {
+		if (command == null || command.trim().isEmpty()) {
+			throw new InvalidCommandException("Command cannot be empty");
+		}
+		for (String dangerousChar : DANGEROUS_CHARS) {
+			if (command.contains(dangerousChar)) {
+				throw new InvalidCommandException(
+					"Command contains dangerous character: " + dangerousChar
+				);
+			}
+		}
+		String baseCommand = command.trim().split("\\s+")[0];
+		if (!ALLOWED_COMMANDS.contains(baseCommand.toLowerCase())) {
+			throw new InvalidCommandException(
+				"Command '" + baseCommand + "' is not in the allowed whitelist. " +
+				"Allowed commands: " + String.join(", ", ALLOWED_COMMANDS)
+			);
+		}
+		String args = command.substring(baseCommand.length()).trim();
+		if (!args.isEmpty() && !SAFE_ARG_PATTERN.matcher(args).matches()) {
+			throw new InvalidCommandException(
+				"Command arguments contain unsafe characters. " +
+				"Only alphanumeric, spaces, dots, hyphens, underscores, and slashes are allowed."
+			);
+		}
+	}
+}
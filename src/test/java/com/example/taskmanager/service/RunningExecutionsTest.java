@@ -0,0 +1,87 @@
+package com.example.taskmanager.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The watchdog stops runs at their deadline, on cancellation and at shutdown.
+ */
+class RunningExecutionsTest {
+
+	private RunningExecutions runningExecutions;
+
+	@BeforeEach
+	void setUp() {
+		runningExecutions = new RunningExecutions();
+		ReflectionTestUtils.setField(runningExecutions, "killGraceMillis", 500L);
+		ReflectionTestUtils.setField(runningExecutions, "shutdownGraceSeconds", 1L);
+		runningExecutions.startWatchdog();
+		runningExecutions.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		runningExecutions.stopWatchdog();
+	}
+
+	@Test
+	void deadlineStopsTheProcess() throws Exception {
+		RunningExecutions.Run run = runningExecutions.open("timeout");
+		Process process = new ProcessBuilder("sleep", "30").start();
+
+		runningExecutions.start(run, process, 1);
+
+		assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+		assertEquals(RunningExecutions.StopReason.TIMEOUT, run.getStopReason());
+		runningExecutions.close(run);
+	}
+
+	@Test
+	void processIgnoringTerminationIsKilledAfterTheGracePeriod() throws Exception {
+		RunningExecutions.Run run = runningExecutions.open("stubborn");
+		Process process = new ProcessBuilder("sh", "-c", "trap '' TERM; sleep 30").start();
+		runningExecutions.start(run, process, 30);
+		Thread.sleep(200);
+
+		assertTrue(runningExecutions.cancel("stubborn"));
+
+		assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+		assertEquals(RunningExecutions.StopReason.CANCELLED, run.getStopReason());
+		runningExecutions.close(run);
+	}
+
+	@Test
+	void runCancelledBeforeItsProcessStartsIsStoppedOnStart() throws Exception {
+		RunningExecutions.Run run = runningExecutions.open("queued");
+		assertTrue(runningExecutions.cancel("queued"));
+
+		Process process = new ProcessBuilder("sleep", "30").start();
+		runningExecutions.start(run, process, 30);
+
+		assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+		runningExecutions.close(run);
+		assertFalse(runningExecutions.cancel("queued"));
+	}
+
+	@Test
+	void shutdownStopsRunsThatOutliveTheGracePeriod() throws Exception {
+		RunningExecutions.Run run = runningExecutions.open(null);
+		Process process = new ProcessBuilder("sleep", "30").start();
+		runningExecutions.start(run, process, 30);
+		process.onExit().thenRun(() -> runningExecutions.close(run));
+
+		runningExecutions.stop();
+
+		assertFalse(process.isAlive());
+		assertEquals(RunningExecutions.StopReason.SHUTDOWN, run.getStopReason());
+		assertTrue(runningExecutions.open("late").isStopped());
+	}
+}
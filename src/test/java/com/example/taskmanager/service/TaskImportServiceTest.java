@@ -0,0 +1,98 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskImportError;
+import com.example.taskmanager.model.TaskImportResult;
+import com.example.taskmanager.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk NDJSON import: failed lines are reported by number, unordered
+ * imports write every valid line and ordered imports stop at the first failure.
+ */
+@SpringBootTest
+class TaskImportServiceTest {
+
+	private static final List<String> IDS = List.of("import-test-1", "import-test-2", "import-test-3", "import-test-4");
+
+	@Autowired
+	private TaskImportService importService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@AfterEach
+	void cleanUp() {
+		taskRepository.deleteAllById(IDS);
+	}
+
+	@Test
+	void unorderedImportWritesEveryValidLine() {
+		TaskImportResult result = importTasks(false,
+			task("import-test-1", "echo one"),
+			"{not json",
+			"",
+			task("import-test-2", "rm -rf /"),
+			task("import-test-3", "echo three"),
+			task("import-test-1", "echo again"));
+
+		assertEquals(5, result.getLines());
+		assertEquals(2, result.getImported());
+		assertEquals(3, result.getFailed());
+		assertEquals(List.of(2L, 4L, 6L), lines(result.getErrors()));
+		assertEquals("import-test-1", result.getErrors().get(2).getId());
+		assertTrue(taskRepository.existsById("import-test-1"));
+		assertTrue(taskRepository.existsById("import-test-3"));
+		assertFalse(taskRepository.existsById("import-test-2"));
+	}
+
+	@Test
+	void orderedImportStopsAtFirstFailure() {
+		TaskImportResult result = importTasks(true,
+			task("import-test-1", "echo one"),
+			"{\"id\": \"import-test-2\", \"name\": \"no owner\", \"command\": \"echo two\"}",
+			task("import-test-3", "echo three"),
+			task("import-test-4", "echo four"));
+
+		assertEquals(1, result.getImported());
+		assertEquals(1, result.getFailed());
+		assertEquals(2, result.getSkipped());
+		assertEquals(List.of(2L), lines(result.getErrors()));
+		assertTrue(taskRepository.existsById("import-test-1"));
+		assertFalse(taskRepository.existsById("import-test-3"));
+	}
+
+	@Test
+	void importedTasksAreSearchable() {
+		importTasks(false, task("import-test-1", "echo one"));
+
+		assertEquals(List.of("import-test-1"), taskRepository.searchByName("Import-Test-1", true, 0, 10).stream()
+			.map(Task::getId)
+			.collect(Collectors.toList()));
+	}
+
+	private TaskImportResult importTasks(boolean ordered, String... lines) {
+		byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+		return importService.importTasks(new ByteArrayInputStream(body), ordered);
+	}
+
+	private static String task(String id, String command) {
+		return "{\"id\": \"" + id + "\", \"name\": \"" + id + "\", \"owner\": \"test\", \"command\": \"" + command + "\"}";
+	}
+
+	private static List<Long> lines(List<TaskImportError> errors) {
+		return errors.stream().map(TaskImportError::getLine).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,196 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.CatchUpPolicy;
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.model.TaskSchedule;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the scheduler with one-second fixed rates against a fake command
+ * executor that records when runs start and how many are in flight.
+ */
+class TaskSchedulerServiceTest {
+
+	private static final String TASK_ID = "scheduled";
+
+	private final List<Long> runStarts = new CopyOnWriteArrayList<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	// Runs wait on this latch while it is set
+	private volatile CountDownLatch blockRuns;
+	private final CountDownLatch firstRunStarted = new CountDownLatch(1);
+
+	private TaskSchedulerService scheduler;
+
+	@BeforeEach
+	void setUp() {
+		scheduler = new TaskSchedulerService();
+		ReflectionTestUtils.setField(scheduler, "enabled", true);
+		ReflectionTestUtils.setField(scheduler, "poolSize", 4);
+		ReflectionTestUtils.setField(scheduler, "misfireThresholdMillis", 1000L);
+		ReflectionTestUtils.setField(scheduler, "taskRepository", stub(TaskRepository.class));
+		ReflectionTestUtils.setField(scheduler, "taskExecutionRepository", stub(TaskExecutionRepository.class));
+		ReflectionTestUtils.setField(scheduler, "taskCache", new FixedTaskCache());
+		ReflectionTestUtils.setField(scheduler, "commandValidator", new CommandValidatorService());
+		ReflectionTestUtils.setField(scheduler, "commandExecutor", new RecordingExecutor());
+		ExecutionTimeouts timeouts = new ExecutionTimeouts();
+		ReflectionTestUtils.setField(timeouts, "defaultSeconds", 30);
+		ReflectionTestUtils.setField(timeouts, "maxSeconds", 30);
+		ReflectionTestUtils.setField(scheduler, "timeouts", timeouts);
+		scheduler.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		CountDownLatch block = blockRuns;
+		if (block != null) {
+			block.countDown();
+		}
+		scheduler.stop();
+	}
+
+	@Test
+	void replacingAScheduleMidRunDoesNotOverlapRuns() throws Exception {
+		blockRuns = new CountDownLatch(1);
+		scheduler.register(task(CatchUpPolicy.FIRE_ONCE, null));
+		assertTrue(firstRunStarted.await(3, TimeUnit.SECONDS));
+
+		// The replacement comes due twice while the first run is still going
+		scheduler.register(task(CatchUpPolicy.FIRE_ONCE, null));
+		Thread.sleep(2500);
+		assertEquals(1, runStarts.size());
+
+		blockRuns.countDown();
+		blockRuns = null;
+		awaitRuns(2, 3000);
+		assertEquals(1, maxInFlight.get());
+	}
+
+	@Test
+	void fireAllRunsEveryMissedFireTime() throws Exception {
+		long registeredAt = System.currentTimeMillis();
+		// Missed fire times at -4.2s, -3.2s, -2.2s, -1.2s and -0.2s; the next one is at +0.8s
+		scheduler.register(task(CatchUpPolicy.FIRE_ALL, new Date(registeredAt - 5200)));
+
+		awaitRuns(5, 600);
+		assertEquals(5, runStarts.size());
+		assertTrue(runStarts.get(4) - registeredAt < 600, "missed runs ran back to back");
+	}
+
+	@Test
+	void skipDropsMissedFireTimesAndWaitsForTheNextOne() throws Exception {
+		long registeredAt = System.currentTimeMillis();
+		scheduler.register(task(CatchUpPolicy.SKIP, new Date(registeredAt - 5200)));
+
+		Thread.sleep(600);
+		assertEquals(0, runStarts.size());
+
+		awaitRuns(1, 2000);
+		assertTrue(runStarts.get(0) - registeredAt >= 1000, "first run waits a full period from now");
+	}
+
+	@Test
+	void unregisterStopsRescheduling() throws Exception {
+		blockRuns = new CountDownLatch(1);
+		scheduler.register(task(CatchUpPolicy.FIRE_ONCE, null));
+		assertTrue(firstRunStarted.await(3, TimeUnit.SECONDS));
+
+		// The run in progress finishes but is not queued again
+		scheduler.unregister(TASK_ID);
+		blockRuns.countDown();
+		blockRuns = null;
+		Thread.sleep(2500);
+
+		assertEquals(1, runStarts.size());
+	}
+
+	private void awaitRuns(int runs, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (runStarts.size() < runs && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(runStarts.size() >= runs, "expected " + runs + " runs, got " + runStarts.size());
+	}
+
+	private static Task task(CatchUpPolicy catchUp, Date lastExecutedAt) {
+		Task task = new Task();
+		task.setId(TASK_ID);
+		task.setName(TASK_ID);
+		task.setOwner("test");
+		task.setCommand("echo scheduled");
+		task.setSchedule(new TaskSchedule(null, 1L, null, catchUp));
+		task.setLastExecutedAt(lastExecutedAt);
+		return task;
+	}
+
+	/**
+	 * Repository stand-in: returns an empty list from finders and the argument from writes.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> repository) {
+		return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository},
+			(proxy, method, args) -> {
+				if (List.class.equals(method.getReturnType())) {
+					return List.of();
+				}
+				return args != null && args.length == 1 ? args[0] : null;
+			});
+	}
+
+	private static final class FixedTaskCache extends TaskDefinitionCache {
+
+		FixedTaskCache() {
+			super(10, new SimpleMeterRegistry());
+		}
+
+		@Override
+		public Optional<Task> get(String id) {
+			return Optional.of(task(CatchUpPolicy.FIRE_ONCE, null));
+		}
+
+		@Override
+		public void recordExecution(String taskId, Date executedAt) {
+		}
+	}
+
+	private final class RecordingExecutor extends CommandExecutorService {
+
+		@Override
+		public CommandResult executeCommand(String command, List<String> argv, Consumer<String> outputListener,
+				RunningExecutions.Run run, int timeoutSeconds) {
+			runStarts.add(System.currentTimeMillis());
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			firstRunStarted.countDown();
+			try {
+				CountDownLatch block = blockRuns;
+				if (block != null) {
+					block.await(10, TimeUnit.SECONDS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				inFlight.decrementAndGet();
+			}
+			return new CommandResult("ok", 0);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.model.Task;
+import com.example.taskmanager.repository.TaskExecutionRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parallel executions of one task must all be recorded: appends are
+ * inserts plus an atomic counter update, never a rewrite of the task.
+ */
+@SpringBootTest
+class TaskServiceConcurrencyTest {
+
+	private static final int EXECUTIONS = 32;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TaskExecutionRepository taskExecutionRepository;
+
+	@Test
+	void parallelExecutionsAreNotLost() throws Exception {
+		Task task = new Task();
+		task.setName("concurrency-test");
+		task.setOwner("test");
+		task.setCommand("echo parallel");
+		String id = taskService.createTask(task).getId();
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> runs = new ArrayList<>();
+			for (int i = 0; i < EXECUTIONS; i++) {
+				runs.add(pool.submit(() -> {
+					start.await();
+					return taskService.executeTask(id, null);
+				}));
+			}
+			start.countDown();
+			for (Future<?> run : runs) {
+				run.get();
+			}
+
+			assertEquals(EXECUTIONS, taskExecutionRepository.countByTaskId(id));
+			assertEquals(EXECUTIONS, taskRepository.findById(id).orElseThrow().getExecutionCount());
+		} finally {
+			pool.shutdownNow();
+			taskService.deleteTask(id);
+		}
+	}
+
+}